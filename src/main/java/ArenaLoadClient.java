@@ -0,0 +1,165 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A load generator for {@link ArenaServer}. Each connection runs on its own virtual thread and plays random games,
+ * sending batches of random digs and measuring the time until the reply arrives.
+ * Once the run is over, the moves per second and latency percentiles are printed.
+ *
+ * @author Evan Razzaque
+ */
+public class ArenaLoadClient {
+    private final int port;
+    private final int cols, rows, mines;
+    private final int batchSize;
+
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * A constructor to set up the load generator.
+     *
+     * @param port The port of the arena server
+     * @param cols Number of columns of each board
+     * @param rows Number of rows of each board
+     * @param mines Number of mines of each board
+     * @param batchSize Number of moves sent per request
+     */
+    public ArenaLoadClient(int port, int cols, int rows, int mines, int batchSize) {
+        this.port = port;
+        this.cols = cols;
+        this.rows = rows;
+        this.mines = mines;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * A method to run the load test and print a report.
+     *
+     * @param connections Number of concurrent connections
+     * @param seconds Duration of the test
+     * @throws InterruptedException If interrupted while waiting for the connections to finish
+     */
+    public void run(int connections, int seconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+
+        List<Thread> threads = new ArrayList<>(connections);
+
+        for (int i = 0; i < connections; i++) {
+            threads.add(Thread.ofVirtual().name("arena-bot-" + i).start(() -> play(deadline)));
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Connections: %d, board: %dx%d with %d mines, %d moves per request%n",
+            connections, cols, rows, mines, batchSize);
+        System.out.printf("Games: %d, requests: %d, moves: %d, errors: %d in %.1fs%n",
+            games.get(), requests.get(), moves.get(), errors.get(), elapsed);
+        System.out.printf("Throughput: %.0f moves/s, %.0f requests/s%n",
+            moves.get() / elapsed, requests.get() / elapsed);
+        System.out.printf("Latency (us): mean %.1f, p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n",
+            latencies.getMean() / 1000, latencies.getPercentile(50) / 1000, latencies.getPercentile(90) / 1000,
+            latencies.getPercentile(99) / 1000, latencies.getPercentile(99.9) / 1000, latencies.getMax() / 1000);
+    }
+
+    /**
+     * A method to play random games on a single connection until the deadline.
+     *
+     * @param deadline The {@link System#nanoTime()} at which to stop
+     */
+    private void play(long deadline) {
+        LatencyHistogram localLatencies = new LatencyHistogram();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder request = new StringBuilder();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            boolean gameOver = true;
+
+            while (System.nanoTime() < deadline) {
+                request.setLength(0);
+
+                if (gameOver) {
+                    request.append("NEW ").append(cols).append(' ').append(rows).append(' ').append(mines).append('\n');
+                    games.incrementAndGet();
+                }
+
+                request.append("MOVES");
+
+                for (int i = 0; i < batchSize; i++) {
+                    request.append(" d ").append(random.nextInt(cols)).append(' ').append(random.nextInt(rows));
+                }
+
+                request.append('\n');
+
+                long sent = System.nanoTime();
+                out.write(request.toString().getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+
+                String newReply = gameOver? in.readLine() : "OK";
+                String reply = in.readLine();
+                localLatencies.record(System.nanoTime() - sent);
+
+                if (newReply == null || reply == null) break;
+                if (!newReply.startsWith("OK")) errors.incrementAndGet();
+
+                String[] parts = reply.split(" ");
+                requests.incrementAndGet();
+
+                if (!parts[0].equals("OK")) {
+                    errors.incrementAndGet();
+                    continue;
+                }
+
+                moves.addAndGet(Integer.parseInt(parts[3]));
+                gameOver = !parts[1].equals("PLAYING");
+            }
+
+            out.write("QUIT\n".getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            errors.incrementAndGet();
+        }
+
+        synchronized (latencies) {
+            latencies.merge(localLatencies);
+        }
+    }
+
+    /**
+     * A method to run the load generator.
+     *
+     * @param args [port] [connections] [seconds] [moves per request] [cols] [rows] [mines]
+     * @throws InterruptedException If interrupted while waiting for the connections to finish
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = (args.length > 0)? Integer.parseInt(args[0]) : ArenaServer.DEFAULT_PORT;
+        int connections = (args.length > 1)? Integer.parseInt(args[1]) : 1000;
+        int seconds = (args.length > 2)? Integer.parseInt(args[2]) : 10;
+        int batchSize = (args.length > 3)? Integer.parseInt(args[3]) : 8;
+        int cols = (args.length > 4)? Integer.parseInt(args[4]) : 30;
+        int rows = (args.length > 5)? Integer.parseInt(args[5]) : 16;
+        int mines = (args.length > 6)? Integer.parseInt(args[6]) : 99;
+
+        new ArenaLoadClient(port, cols, rows, mines, batchSize).run(connections, seconds);
+    }
+}
@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A headless server that lets external bots play Minesweeper over a local TCP port.<br><br>
+ * The protocol is line based (ASCII, each line ends with '\n') and every connection holds its own board:
+ * <ul>
+ *   <li>{@code NEW <cols> <rows> <mines> [SQUARE|TORUS|HEX|LAYERED] [seed]} creates a new board, square by default.
+ *   The cells of a layered board are addressed with columns from 0 to {@code 3 * cols - 1}, like they are drawn.
+ *   The same seed and first move always give the same mines (see {@link Board#start(int, int, long)}).
+ *   Reply: {@code OK <flags>}</li>
+ *   <li>{@code MOVES <op> <x> <y> [<op> <x> <y> ...]} applies a batch of moves, where op is {@code d} (dig),
+ *   {@code f} (flag) or {@code c} (chord). The first move starts the game around its cell.
+ *   A batch with an invalid move is rejected as a whole, before any of its moves is applied.
+ *   Reply: {@code OK <PLAYING|WON|LOST> <flags> <moves applied>}</li>
+ *   <li>{@code VIEW} gets the board as seen by the player. Reply: {@code OK <cols> <rows> <cells>}</li>
+ *   <li>{@code QUIT} closes the connection</li>
+ * </ul>
+ * Invalid requests are answered with {@code ERR <message>}. Requests can be pipelined,
+ * and replies are sent in the same order as the requests.<br><br>
+ * Connections are spread across one selector thread per core, so thousands of sessions can be served at once.
+ *
+ * @author Evan Razzaque
+ * @see ArenaSession
+ * @see ArenaLoadClient
+ */
+public class ArenaServer {
+    static final int DEFAULT_PORT = 7070;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_REQUEST_SIZE = 1 << 20;
+    // Requests of a connection are no longer read once this many bytes of replies wait to be written
+    private static final int MAX_PENDING_OUTPUT = 4 << 20;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+
+    /**
+     * A constructor to bind the server to a port on the loopback address.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param threads Number of selector threads
+     * @throws IOException If the port could not be bound
+     */
+    public ArenaServer(int port, int threads) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+
+        eventLoops = new EventLoop[threads];
+
+        for (int i = 0; i < threads; i++) {
+            eventLoops[i] = new EventLoop(Selector.open());
+        }
+    }
+
+    /**
+     * A method to start the selector threads and accept connections until the server channel is closed.
+     */
+    public void run() {
+        for (int i = 0; i < eventLoops.length; i++) {
+            Thread thread = new Thread(eventLoops[i], "arena-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int next = 0;
+
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+                eventLoops[next].register(channel);
+                next = (next + 1) % eventLoops.length;
+            } catch (IOException e) {
+                if (serverChannel.isOpen()) System.err.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A method to stop accepting connections.
+     *
+     * @throws IOException If the server channel could not be closed
+     */
+    public void close() throws IOException {
+        serverChannel.close();
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * A selector thread which reads requests, executes them and writes the replies for its connections.
+     */
+    private static class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+        private final StringBuilder reply = new StringBuilder();
+
+        EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * A method to hand a new connection to this thread.
+         *
+         * @param channel The connection
+         */
+        void register(SocketChannel channel) {
+            pendingChannels.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (selector.isOpen()) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                    return;
+                }
+
+                registerPendingChannels();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    try {
+                        if (key.isReadable()) read(key);
+
+                        if (key.isValid() && key.isWritable()) {
+                            write(key);
+
+                            // Requests left over when the output was full are executed once it has room again
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isValid() && connection.hasPendingRequests && !connection.isOutputFull()) {
+                                executeRequests(key);
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        close(key);
+                    }
+                }
+            }
+        }
+
+        private void registerPendingChannels() {
+            SocketChannel channel;
+
+            while ((channel = pendingChannels.poll()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.register(selector, SelectionKey.OP_READ, new Connection());
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * A method to read the available bytes of a connection and execute every complete request.
+         *
+         * @param key The selection key of the connection
+         * @throws IOException If the connection failed
+         */
+        private void read(SelectionKey key) throws IOException {
+            Connection connection = (Connection) key.attachment();
+            SocketChannel channel = (SocketChannel) key.channel();
+
+            if (!connection.input.hasRemaining()) connection.growInput();
+
+            if (channel.read(connection.input) < 0) {
+                close(key);
+                return;
+            }
+
+            executeRequests(key);
+        }
+
+        /**
+         * A method to execute the complete requests in the input buffer of a connection and write their replies.
+         * Requests are left in the buffer once the pending replies reach {@link #MAX_PENDING_OUTPUT} bytes,
+         * so a client that sends requests without reading the replies can not use up the memory of the server.
+         *
+         * @param key The selection key of the connection
+         * @throws IOException If the connection failed
+         */
+        private void executeRequests(SelectionKey key) throws IOException {
+            Connection connection = (Connection) key.attachment();
+            ByteBuffer input = connection.input;
+            byte[] bytes = input.array();
+            int start = 0;
+            boolean open = true;
+
+            connection.hasPendingRequests = false;
+
+            for (int i = 0; i < input.position() && open; i++) {
+                if (bytes[i] != '\n') continue;
+
+                if (connection.output.position() + reply.length() >= MAX_PENDING_OUTPUT) {
+                    connection.hasPendingRequests = true;
+                    break;
+                }
+
+                open = connection.session.handle(bytes, start, i, reply);
+                start = i + 1;
+            }
+
+            input.flip().position(start);
+            input.compact();
+
+            if (!reply.isEmpty()) {
+                connection.queueReply(reply);
+                reply.setLength(0);
+            }
+
+            write(key);
+            if (!open) connection.closeAfterWrite = true;
+            if (connection.closeAfterWrite && connection.output.position() == 0) close(key);
+        }
+
+        /**
+         * A method to write as much of the pending replies as the connection accepts.
+         *
+         * @param key The selection key of the connection
+         * @throws IOException If the connection failed
+         */
+        private void write(SelectionKey key) throws IOException {
+            Connection connection = (Connection) key.attachment();
+
+            if (connection.output.position() > 0) {
+                connection.output.flip();
+                ((SocketChannel) key.channel()).write(connection.output);
+                connection.output.compact();
+            }
+
+            // Nothing more is read until the requests left over when the output was full are executed,
+            // which happens on the next write event, even if every reply was written
+            boolean pending = connection.output.position() > 0 || connection.hasPendingRequests;
+            int readOps = (connection.isOutputFull() || connection.hasPendingRequests)? 0 : SelectionKey.OP_READ;
+            key.interestOps(pending? readOps | SelectionKey.OP_WRITE : readOps);
+
+            if (connection.output.position() == 0 && connection.closeAfterWrite) close(key);
+        }
+
+        private void close(SelectionKey key) {
+            key.cancel();
+
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The buffers and game session of a single connection.
+     */
+    private static class Connection {
+        final ArenaSession session = new ArenaSession();
+        ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+        boolean closeAfterWrite;
+        // Whether complete requests were left in the input buffer because the output was full
+        boolean hasPendingRequests;
+
+        /**
+         * A method to check if enough replies wait to be written that no more requests should be read.
+         *
+         * @return true if the output is full, false otherwise
+         */
+        boolean isOutputFull() {
+            return output.position() >= MAX_PENDING_OUTPUT;
+        }
+
+        /**
+         * A method to make room for a request that does not fit in the input buffer.
+         *
+         * @throws IOException If the request is too large
+         */
+        void growInput() throws IOException {
+            if (input.capacity() >= MAX_REQUEST_SIZE) throw new IOException("Request too large");
+
+            ByteBuffer larger = ByteBuffer.allocate(input.capacity() * 2);
+            input.flip();
+            larger.put(input);
+            input = larger;
+        }
+
+        /**
+         * A method to append replies to the output buffer.
+         *
+         * @param reply The replies to append
+         */
+        void queueReply(CharSequence reply) {
+            if (output.remaining() < reply.length()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + reply.length()));
+                output.flip();
+                larger.put(output);
+                output = larger;
+            }
+
+            // Replies are ASCII, so each character is a single byte
+            for (int i = 0; i < reply.length(); i++) {
+                output.put((byte) reply.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * A method to run the server until the process is stopped.
+     *
+     * @param args [port] [threads]
+     * @throws IOException If the port could not be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = (args.length > 1)? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        ArenaServer server = new ArenaServer(port, threads);
+        System.out.println("Arena server listening on 127.0.0.1:" + server.getPort() + " with " + threads + " threads");
+        server.run();
+    }
+}
@@ -0,0 +1,287 @@
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A class that holds the board of a single bot connection and executes its requests.
+ * See {@link ArenaServer} for the protocol.<br><br>
+ * Like {@link Game}, the protocol uses 0-based coordinates, which are converted to the 1-based board coordinates.
+ *
+ * @author Evan Razzaque
+ */
+class ArenaSession {
+    static final int MAX_CELLS = 1_000_000;
+
+    private Board board;
+    private int cols, rows;
+    private long seed;
+    private boolean started;
+
+    // The cells of the row being written by VIEW
+    private int[] rowCells;
+
+    // The request currently being parsed
+    private byte[] line;
+    private int pos, end;
+
+    // The cell of the move read last by nextMove
+    private int moveX, moveY;
+
+    /**
+     * A method to execute a single request line.
+     *
+     * @param buffer The buffer containing the request
+     * @param start The index of the first byte of the request
+     * @param end The index after the last byte of the request (excluding the line terminator)
+     * @param reply The builder to append the reply line to
+     * @return false if the connection should be closed, true otherwise
+     */
+    boolean handle(byte[] buffer, int start, int end, StringBuilder reply) {
+        line = buffer;
+        pos = start;
+        this.end = end;
+
+        try {
+            String command = nextWord();
+
+            switch (command) {
+                case "NEW" -> newBoard(nextInt(), nextInt(), nextInt(), nextTopologyKind(), nextSeed(), reply);
+                case "MOVES" -> applyMoves(reply);
+                case "VIEW" -> view(reply);
+                case "QUIT" -> {
+                    return false;
+                }
+                case "" -> {
+                    return true;
+                }
+                default -> throw new IllegalArgumentException("Unknown command " + command);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            reply.append("ERR ").append(e.getMessage());
+        }
+
+        reply.append('\n');
+        return true;
+    }
+
+    /**
+     * A method to create a new board for this session.
+     *
+     * @param cols Number of columns
+     * @param rows Number of rows
+     * @param mines Number of mines
+     * @param kind The kind of topology
+     * @param seed The seed of the mine placement
+     * @param reply The reply builder
+     */
+    private void newBoard(int cols, int rows, int mines, Topology.Kind kind, long seed, StringBuilder reply) {
+        long cellCount = Topology.cellCount(kind, cols, rows);
+
+        if (cols <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("There must be at least one column and one row");
+        } else if (cellCount > MAX_CELLS) {
+            throw new IllegalArgumentException("Boards are limited to " + MAX_CELLS + " cells");
+        } else if (mines < 0 || mines >= cellCount) {
+            throw new IllegalArgumentException("There must be less mines than cells");
+        }
+
+        Topology topology = Topology.of(kind, cols, rows);
+
+        this.cols = topology.getWidth();
+        this.rows = topology.getHeight();
+        board = new Board(topology, mines);
+        this.seed = seed;
+        started = false;
+
+        reply.append("OK ").append(board.getFlags());
+    }
+
+    /**
+     * A method to apply a batch of moves. Moves after the end of the game are ignored.
+     * The whole batch is checked before any move is applied, so an invalid batch leaves the board unchanged.
+     *
+     * @param reply The reply builder
+     */
+    private void applyMoves(StringBuilder reply) {
+        if (board == null) throw new IllegalStateException("No board, send NEW first");
+
+        int movesStart = pos;
+        while (skipSpaces()) nextMove();
+        pos = movesStart;
+
+        int applied = 0;
+
+        while (skipSpaces() && !isGameOver()) {
+            byte op = nextMove();
+
+            if (!started) {
+                board.start(moveX, moveY, seed);
+                started = true;
+            }
+
+            switch (op) {
+                case 'd' -> board.dig(moveX + 1, moveY + 1);
+                case 'f' -> board.toggleFlag(moveX + 1, moveY + 1);
+                default -> board.chord(moveX + 1, moveY + 1);
+            }
+
+            applied++;
+        }
+
+        reply.append("OK ").append(getStatus()).append(' ').append(board.getFlags()).append(' ').append(applied);
+    }
+
+    /**
+     * A method to read the next move of the current request. Its cell is stored in {@link #moveX} and {@link #moveY}.
+     *
+     * @return The operation of the move: 'd', 'f' or 'c'
+     * @throws IllegalArgumentException If the move is invalid or its cell is outside the board
+     */
+    private byte nextMove() {
+        byte op = line[pos++];
+
+        if (op != 'd' && op != 'f' && op != 'c') throw new IllegalArgumentException("Unknown move " + (char) op);
+
+        moveX = nextInt();
+        moveY = nextInt();
+
+        if (moveX < 0 || moveX >= cols || moveY < 0 || moveY >= rows) {
+            throw new IllegalArgumentException("Cell (" + moveX + ", " + moveY + ") is outside the board");
+        }
+
+        return op;
+    }
+
+    /**
+     * A method to write the board as seen by the player. Each cell is one character:
+     * '#' for unopened cells, 'F' for flags, '0' to '8' for opened cells and '*' for mines once the game is over.
+     *
+     * @param reply The reply builder
+     */
+    private void view(StringBuilder reply) {
+        if (board == null) throw new IllegalStateException("No board, send NEW first");
+
+        reply.append("OK ").append(cols).append(' ').append(rows).append(' ');
+        reply.ensureCapacity(reply.length() + cols * rows + 1);
+
+        if (rowCells == null || rowCells.length != cols) rowCells = new int[cols];
+
+        for (int y = 1; y <= rows; y++) {
+            // Mines are hidden until the game is over
+            board.copyRow(y, rowCells, 0, isGameOver());
+
+            for (int x = 0; x < cols; x++) {
+                int cell = rowCells[x];
+
+                if ((cell & Cell.OPENED) > 0) {
+                    reply.append((char) ('0' + Math.max(0, Cell.getAdjacentMines(cell))));
+                } else if ((cell & Cell.FLAG) > 0) {
+                    reply.append('F');
+                } else if ((cell & Cell.MINE) > 0) {
+                    reply.append('*');
+                } else {
+                    reply.append('#');
+                }
+            }
+        }
+    }
+
+    private boolean isGameOver() {
+        return board.isGameLost() || board.isGameWon();
+    }
+
+    private String getStatus() {
+        if (board.isGameLost()) return "LOST";
+        return board.isGameWon()? "WON" : "PLAYING";
+    }
+
+    /**
+     * A method to skip spaces in the current request.
+     *
+     * @return true if there is more to read, false otherwise
+     */
+    private boolean skipSpaces() {
+        while (pos < end && (line[pos] == ' ' || line[pos] == '\r')) pos++;
+        return pos < end;
+    }
+
+    /**
+     * A method to read the next word of the current request.
+     *
+     * @return The word, or an empty string if the request has no more words
+     */
+    private String nextWord() {
+        skipSpaces();
+
+        int start = pos;
+        while (pos < end && line[pos] != ' ' && line[pos] != '\r') pos++;
+
+        return new String(line, start, pos - start, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A method to read the optional topology of a new board.
+     *
+     * @return The kind of topology, or {@link Topology.Kind#SQUARE} if the request has no more words
+     * @throws IllegalArgumentException If the next word is not a kind of topology
+     */
+    private Topology.Kind nextTopologyKind() {
+        String word = nextWord();
+        if (word.isEmpty()) return Topology.Kind.SQUARE;
+
+        try {
+            return Topology.Kind.valueOf(word);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown topology " + word);
+        }
+    }
+
+    /**
+     * A method to read the optional seed of a new board.
+     *
+     * @return The seed, or a random seed if the request has no more words
+     * @throws IllegalArgumentException If the next word is not an integer
+     */
+    private long nextSeed() {
+        return skipSpaces()? nextLong(Long.MAX_VALUE) : ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * A method to read the next integer of the current request without creating any strings.
+     *
+     * @return The integer
+     * @throws IllegalArgumentException If the next word is not an integer
+     */
+    private int nextInt() {
+        return (int) nextLong(Integer.MAX_VALUE);
+    }
+
+    /**
+     * A method to read the next integer of the current request without creating any strings.
+     *
+     * @param max The largest magnitude allowed
+     * @return The integer
+     * @throws IllegalArgumentException If the next word is not an integer, or is larger than the maximum
+     */
+    private long nextLong(long max) {
+        if (!skipSpaces()) throw new IllegalArgumentException("Missing number");
+
+        boolean negative = line[pos] == '-';
+        if (negative) pos++;
+
+        int start = pos;
+        long value = 0;
+
+        while (pos < end && line[pos] >= '0' && line[pos] <= '9') {
+            int digit = line[pos++] - '0';
+            if (value > (max - digit) / 10) throw new IllegalArgumentException("Number too large");
+
+            value = value * 10 + digit;
+        }
+
+        if (pos == start || (pos < end && line[pos] != ' ' && line[pos] != '\r')) {
+            throw new IllegalArgumentException("Invalid number");
+        }
+
+        return negative? -value : value;
+    }
+}
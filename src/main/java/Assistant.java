@@ -0,0 +1,136 @@
+/**
+ * A class to find obvious mines and safe cells on a board, for hints and for automatically flagging and digging.<br><br>
+ * Only the frontier cells the board marked as dirty are looked at, so the work per move is proportional to the
+ * cells the move affected rather than the size of the board. A frontier cell proves its neighbours when:
+ * <ul>
+ *   <li>It has as many adjacent flags as adjacent mines, so its other unopened neighbours are safe</li>
+ *   <li>It has as many adjacent flags and unopened cells as adjacent mines, so its unopened neighbours are mines</li>
+ * </ul>
+ * Like chording, this trusts the flags placed by the player.
+ *
+ * @author Evan Razzaque
+ * @see Board#getDirtyFrontier()
+ */
+class Assistant {
+    /**
+     * A cell that was proven to be safe or to contain a mine.
+     *
+     * @param x Cell column (1-based, like the board)
+     * @param y Cell row (1-based)
+     * @param isMine Whether the cell contains a mine
+     */
+    record Hint(int x, int y, boolean isMine) {}
+
+    private final Board board;
+    private final int[] neighbours;
+    private final IntSet mineCells;
+    private final IntSet safeCells;
+
+    /**
+     * A constructor to create an assistant for a board.
+     *
+     * @param board The board
+     */
+    Assistant(Board board) {
+        this.board = board;
+        neighbours = new int[board.getTopology().getMaxNeighbours()];
+        mineCells = new IntSet(board.getIndexBound());
+        safeCells = new IntSet(board.getIndexBound());
+    }
+
+    /**
+     * A method to find a cell that is proven to be safe, or else one that is proven to be a mine.
+     * Dirty frontier cells that prove nothing are no longer dirty afterwards.
+     *
+     * @return The hint, or null if no cell can be proven with the current flags
+     */
+    Hint findHint() {
+        IntSet dirtyFrontier = board.getDirtyFrontier();
+        int mineIndex = -1;
+
+        for (int i = dirtyFrontier.size() - 1; i >= 0; i--) {
+            int index = dirtyFrontier.get(i);
+
+            mineCells.clear();
+            safeCells.clear();
+
+            if (!deduce(index)) {
+                dirtyFrontier.remove(index);
+            } else if (!safeCells.isEmpty()) {
+                return toHint(safeCells.get(0), false);
+            } else if (mineIndex < 0) {
+                mineIndex = mineCells.get(0);
+            }
+        }
+
+        return (mineIndex < 0)? null : toHint(mineIndex, true);
+    }
+
+    /**
+     * A method to flag every obvious mine and dig every obvious safe cell, until no more cells can be proven.
+     * The moves found in each pass are applied to the board as one batch.
+     *
+     * @return The number of moves applied
+     */
+    int assist() {
+        IntSet dirtyFrontier = board.getDirtyFrontier();
+        int moves = 0;
+
+        while (!board.isGameLost() && !board.isGameWon()) {
+            mineCells.clear();
+            safeCells.clear();
+
+            for (int i = dirtyFrontier.size() - 1; i >= 0; i--) {
+                int index = dirtyFrontier.get(i);
+
+                deduce(index);
+                dirtyFrontier.remove(index);
+            }
+
+            if (mineCells.isEmpty() && safeCells.isEmpty()) break;
+
+            moves += board.applyMoves(mineCells, safeCells);
+        }
+
+        return moves;
+    }
+
+    /**
+     * A method to add the neighbours that a frontier cell proves to {@link #mineCells} and {@link #safeCells}.
+     *
+     * @param index The index of the frontier cell
+     * @return true if any unopened neighbour was proven, false otherwise
+     */
+    private boolean deduce(int index) {
+        int adjacentMines = Cell.getAdjacentMines(board.getCellAt(index));
+        int count = board.getNeighbours(index, neighbours);
+        int flagCount = 0;
+        int unopenedCount = 0;
+
+        for (int i = 0; i < count; i++) {
+            int cell = board.getCellAt(neighbours[i]);
+
+            if ((cell & Cell.FLAG) > 0) flagCount++;
+            else if (cell < Cell.OPENED) unopenedCount++;
+        }
+
+        if (unopenedCount == 0) return false;
+
+        IntSet proven;
+
+        if (flagCount == adjacentMines) proven = safeCells;
+        else if (flagCount + unopenedCount == adjacentMines) proven = mineCells;
+        else return false;
+
+        for (int i = 0; i < count; i++) {
+            int cell = board.getCellAt(neighbours[i]);
+            if ((cell & Cell.FLAG) == 0 && cell < Cell.OPENED) proven.add(neighbours[i]);
+        }
+
+        return true;
+    }
+
+    private Hint toHint(int index, boolean isMine) {
+        return new Hint(board.getX(index), board.getY(index), isMine);
+    }
+}
@@ -0,0 +1,472 @@
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A batch of games played in lockstep, for training agents on many games at once.<br><br>
+ * Every game has the same topology and number of mines, and all of them are stored in flat arrays
+ * (one byte of state, with the flags of {@link Cell}, and one byte of adjacent mine count per cell, game after game),
+ * so no {@link Board} objects are involved. Games follow the same rules as a {@link Board}.
+ * Each {@link #step} applies one action per game and fills the observation, reward and done arrays
+ * given by the caller. Games are split into chunks which are stepped in parallel on the common {@link ForkJoinPool}
+ * by tasks that are created once and reused, so stepping does not allocate.<br><br>
+ * An action is a cell index (see {@link Topology#index(int, int)}) to dig (or chord, if the cell is opened),
+ * or a cell index plus the number of cells to toggle a flag. Like {@link Board}, the mines of a game are placed
+ * on its first dig, away from the dug cell. They are placed by a random generator seeded with the seed of the
+ * environment, the game and the episode, so every episode can be replayed.<br><br>
+ * A game that ends is reset right away: its done flag is set, and its observation is the one of the new episode.
+ *
+ * @author Evan Razzaque
+ */
+public class BatchEnvironment {
+    /** The observation of an unopened cell (opened cells are observed as their number of adjacent mines) */
+    public static final byte UNOPENED = -1;
+    /** The observation of a flagged cell */
+    public static final byte FLAGGED = -2;
+
+    /** The reward for winning a game, on top of the reward for the cells opened */
+    public static final float WIN_REWARD = 1;
+    /** The reward for digging a mine */
+    public static final float LOSS_REWARD = -1;
+    /** The reward for an action that changed nothing */
+    public static final float NO_OP_REWARD = -0.01f;
+
+    // The number of chunks per core, so cores that finish early can take another chunk
+    private static final int CHUNKS_PER_CORE = 4;
+
+    private final Topology topology;
+    private final int cellCount, mines, batchSize;
+    private final long seed;
+    private final int[] neighbourStarts, neighbours;
+
+    // The cells of every game, game after game
+    private final byte[] cells;
+    private final byte[] adjacentMines;
+
+    private final int[] cellsDug;
+    private final int[] flags;
+    private final boolean[] minesPlaced;
+    private final long[] episodes;
+
+    private final StepTask[] chunks;
+    private final RecursiveAction step;
+
+    // The arrays of the current step, shared by the chunks
+    private int[] actions;
+    private byte[] observations;
+    private float[] rewards;
+    private boolean[] dones;
+
+    /**
+     * A constructor to set up a batch of games.
+     *
+     * @param topology The topology of every game
+     * @param mines Number of mines of every game
+     * @param batchSize Number of games
+     * @param seed The seed of the mine layouts
+     */
+    public BatchEnvironment(Topology topology, int mines, int batchSize, long seed) {
+        if (mines >= topology.getCellCount()) throw new IllegalArgumentException("There must be less mines than cells");
+
+        this.topology = topology;
+        this.mines = mines;
+        this.batchSize = batchSize;
+        this.seed = seed;
+        cellCount = topology.getCellCount();
+        neighbourStarts = topology.getNeighbourStarts();
+        neighbours = topology.getNeighbours();
+
+        cells = new byte[batchSize * cellCount];
+        adjacentMines = new byte[batchSize * cellCount];
+        cellsDug = new int[batchSize];
+        flags = new int[batchSize];
+        minesPlaced = new boolean[batchSize];
+        episodes = new long[batchSize];
+
+        int chunkCount = Math.min(batchSize, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_CORE);
+        chunks = new StepTask[chunkCount];
+
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i] = new StepTask(i * batchSize / chunkCount, (i + 1) * batchSize / chunkCount);
+        }
+
+        step = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(chunks);
+            }
+        };
+    }
+
+    /**
+     * A method to start a new episode of every game.
+     *
+     * @param observations The array to fill with the observation of every cell of every game,
+     *                     of length {@link #getObservationSize()}
+     */
+    public void reset(byte[] observations) {
+        checkLength(observations.length, getObservationSize(), "observations");
+
+        for (int game = 0; game < batchSize; game++) {
+            resetGame(game, observations);
+        }
+    }
+
+    /**
+     * A method to apply one action to every game.<br><br>
+     * Only the observations of the cells that changed are written, so the observation array must be the one
+     * filled by {@link #reset(byte[])} and the previous steps.
+     *
+     * @param actions The action of every game (a cell index to dig, or a cell index plus the number of cells
+     *                to toggle a flag)
+     * @param observations The observations to update
+     * @param rewards The array to fill with the reward of every game
+     * @param dones The array to fill with whether every game ended (and was reset) during this step
+     * @throws IllegalArgumentException If an array has the wrong length or an action is invalid,
+     * in which case no game is stepped
+     */
+    public void step(int[] actions, byte[] observations, float[] rewards, boolean[] dones) {
+        checkLength(actions.length, batchSize, "actions");
+        checkLength(observations.length, getObservationSize(), "observations");
+        checkLength(rewards.length, batchSize, "rewards");
+        checkLength(dones.length, batchSize, "dones");
+
+        // Every action is checked before any game is stepped, so a bad action never leaves the batch half-stepped
+        for (int game = 0; game < batchSize; game++) {
+            if (actions[game] < 0 || actions[game] >= 2 * cellCount) {
+                throw new IllegalArgumentException("Invalid action " + actions[game] + " for game " + game);
+            }
+        }
+
+        this.actions = actions;
+        this.observations = observations;
+        this.rewards = rewards;
+        this.dones = dones;
+
+        try {
+            for (StepTask chunk : chunks) {
+                chunk.reinitialize();
+            }
+
+            step.reinitialize();
+            ForkJoinPool.commonPool().invoke(step);
+        } finally {
+            this.actions = null;
+            this.observations = null;
+            this.rewards = null;
+            this.dones = null;
+        }
+    }
+
+    private static void checkLength(int length, int expected, String name) {
+        if (length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " " + name + " but got " + length);
+        }
+    }
+
+    /**
+     * A task that steps a range of games. Each task has its own flood fill queue.
+     */
+    private class StepTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final int[] queue = new int[cellCount];
+
+        StepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            for (int game = from; game < to; game++) {
+                float reward = stepGame(game, actions[game], observations, queue);
+                boolean done = reward == LOSS_REWARD || cellsDug[game] == cellCount - mines;
+
+                if (done && reward != LOSS_REWARD) reward += WIN_REWARD;
+                if (done) resetGame(game, observations);
+
+                rewards[game] = reward;
+                dones[game] = done;
+            }
+        }
+    }
+
+    /**
+     * A method to apply an action to a game, following the same rules as {@link Board}.
+     *
+     * @param game The game
+     * @param action The action, which has been checked by {@link #step}
+     * @param observations The observations to update
+     * @param queue The flood fill queue
+     * @return The reward of the action, which is the share of the safe cells it opened,
+     * {@link #LOSS_REWARD} if it dug a mine or {@link #NO_OP_REWARD} if it changed nothing
+     */
+    private float stepGame(int game, int action, byte[] observations, int[] queue) {
+        if (action >= cellCount) {
+            return toggleFlag(game, action - cellCount, observations)? 0 : NO_OP_REWARD;
+        }
+
+        int index = game * cellCount + action;
+        if ((cells[index] & Cell.FLAG) > 0) return NO_OP_REWARD;
+        if (!minesPlaced[game]) placeMines(game, action);
+
+        int cellsDugBefore = cellsDug[game];
+
+        if ((cells[index] & Cell.OPENED) > 0) {
+            if (!chord(game, action, observations, queue)) return LOSS_REWARD;
+        } else if (dig(game, action, observations, queue) == Cell.MINE) {
+            return LOSS_REWARD;
+        }
+
+        int opened = cellsDug[game] - cellsDugBefore;
+        return (opened == 0)? NO_OP_REWARD : (float) opened / (cellCount - mines);
+    }
+
+    /**
+     * A method to dig a cell of a game, with the same flood fill as {@link Board}.
+     *
+     * @return The state of the dug cell, or {@link Cell#FLAG} if it is protected by a flag
+     */
+    private int dig(int game, int cell, byte[] observations, int[] queue) {
+        int offset = game * cellCount;
+        byte state = cells[offset + cell];
+
+        if (state == Cell.MINE) {
+            return Cell.MINE;
+        } else if (state == Cell.MINE_FLAGGED || (state & Cell.CHORD_FLAG) > 0) {
+            return Cell.FLAG;
+        } else if ((state & Cell.OPENED) > 0) {
+            return Cell.OPENED;
+        }
+
+        open(game, cell, observations);
+        if (adjacentMines[offset + cell] > 0) return Cell.OPENED;
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = cell;
+
+        while (head < tail) {
+            int current = queue[head++];
+
+            for (int i = neighbourStarts[current]; i < neighbourStarts[current + 1]; i++) {
+                int neighbour = neighbours[i];
+
+                // Flags that have not been used for chording are dug through
+                if (cells[offset + neighbour] >= Cell.CHORD_FLAG) continue;
+
+                open(game, neighbour, observations);
+                if (adjacentMines[offset + neighbour] == 0) queue[tail++] = neighbour;
+            }
+        }
+
+        return Cell.OPENED;
+    }
+
+    /**
+     * A method to open a cell which is not a mine, removing its flag if it has one.
+     */
+    private void open(int game, int cell, byte[] observations) {
+        int index = game * cellCount + cell;
+
+        if (cells[index] == Cell.FLAG) flags[game]++;
+
+        cells[index] = Cell.OPENED;
+        observations[index] = adjacentMines[index];
+        cellsDug[game]++;
+    }
+
+    /**
+     * A method to add or remove a flag on a cell of a game. A flag can only be added if the game has flags left.
+     *
+     * @return true if the cell changed, false otherwise
+     */
+    private boolean toggleFlag(int game, int cell, byte[] observations) {
+        int index = game * cellCount + cell;
+        byte state = cells[index];
+
+        if (state >= Cell.OPENED) return false;
+
+        if ((state & Cell.FLAG) == 0) {
+            if (flags[game] <= 0) return false;
+
+            flags[game]--;
+            cells[index] = (byte) (state + Cell.FLAG);
+            observations[index] = FLAGGED;
+        } else {
+            flags[game]++;
+            cells[index] = (byte) (state & ~Cell.FLAG_CHORDED);
+            observations[index] = UNOPENED;
+        }
+
+        return true;
+    }
+
+    /**
+     * A method to perform chording around an opened cell of a game with the corresponding amount of flags.
+     * Like {@link Board#chord(int, int)}, the flags around the cell are kept from being dug through afterwards.
+     *
+     * @return false if a mine was dug, true otherwise
+     */
+    private boolean chord(int game, int cell, byte[] observations, int[] queue) {
+        int offset = game * cellCount;
+        int adjacent = adjacentMines[offset + cell];
+        if (adjacent <= 0) return true;
+
+        int flagCount = 0;
+
+        for (int i = neighbourStarts[cell]; i < neighbourStarts[cell + 1]; i++) {
+            int neighbour = offset + neighbours[i];
+            if ((cells[neighbour] & Cell.FLAG) == 0) continue;
+
+            cells[neighbour] |= Cell.CHORD_FLAG;
+            flagCount++;
+        }
+
+        if (flagCount != adjacent) return true;
+
+        for (int i = neighbourStarts[cell]; i < neighbourStarts[cell + 1]; i++) {
+            if (dig(game, neighbours[i], observations, queue) == Cell.MINE) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * A method to place the mines of a game with Floyd's algorithm, away from the first dug cell.
+     *
+     * @param game The game
+     * @param origin The first dug cell
+     */
+    private void placeMines(int game, int origin) {
+        int offset = game * cellCount;
+        int candidates = cellCount - 1;
+        SplittableRandom random = new SplittableRandom(getEpisodeSeed(game));
+
+        for (int j = candidates - mines; j < candidates; j++) {
+            int cell = random.nextInt(j + 1);
+            if (cell >= origin) cell++;
+
+            if ((cells[offset + cell] & Cell.MINE) > 0) cell = (j >= origin)? j + 1 : j;
+
+            cells[offset + cell] |= Cell.MINE;
+
+            for (int i = neighbourStarts[cell]; i < neighbourStarts[cell + 1]; i++) {
+                adjacentMines[offset + neighbours[i]]++;
+            }
+        }
+
+        minesPlaced[game] = true;
+    }
+
+    /**
+     * A method to start a new episode of a game.
+     *
+     * @param game The game
+     * @param observations The observations to reset
+     */
+    private void resetGame(int game, byte[] observations) {
+        int offset = game * cellCount;
+
+        Arrays.fill(cells, offset, offset + cellCount, (byte) 0);
+        Arrays.fill(adjacentMines, offset, offset + cellCount, (byte) 0);
+        Arrays.fill(observations, offset, offset + cellCount, UNOPENED);
+
+        cellsDug[game] = 0;
+        flags[game] = mines;
+        minesPlaced[game] = false;
+        episodes[game]++;
+    }
+
+    /**
+     * Gets the seed of the mine layout of the current episode of a game.
+     *
+     * @param game The game
+     * @return The seed
+     */
+    public long getEpisodeSeed(int game) {
+        return seed + game * 0x9E3779B97F4A7C15L + episodes[game] * 0xC2B2AE3D27D4EB4FL;
+    }
+
+    /**
+     * Gets the number of episodes a game has started, including the current one.
+     *
+     * @param game The game
+     * @return Number of episodes
+     */
+    public long getEpisodes(int game) {
+        return episodes[game];
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Gets the length of the observation array, which is the number of cells of every game.
+     *
+     * @return The observation size
+     */
+    public int getObservationSize() {
+        return batchSize * cellCount;
+    }
+
+    /**
+     * A method to measure how many games per second can be stepped with random actions.
+     *
+     * @param args [batch size] [cols] [rows] [mines] [steps]
+     */
+    public static void main(String[] args) {
+        int batchSize = (args.length > 0)? Integer.parseInt(args[0]) : 4096;
+        int cols = (args.length > 1)? Integer.parseInt(args[1]) : 16;
+        int rows = (args.length > 2)? Integer.parseInt(args[2]) : 16;
+        int mines = (args.length > 3)? Integer.parseInt(args[3]) : 40;
+        int steps = (args.length > 4)? Integer.parseInt(args[4]) : 2000;
+
+        BatchEnvironment environment = new BatchEnvironment(Topology.of(Topology.Kind.SQUARE, cols, rows), mines,
+            batchSize, 42);
+        int cellCount = cols * rows;
+
+        int[] actions = new int[batchSize];
+        byte[] observations = new byte[environment.getObservationSize()];
+        float[] rewards = new float[batchSize];
+        boolean[] dones = new boolean[batchSize];
+        SplittableRandom random = new SplittableRandom(7);
+
+        environment.reset(observations);
+        long games = 0;
+        long startTime = System.nanoTime();
+
+        for (int step = 0; step < steps; step++) {
+            // Digs a random unopened cell of every game, like a very bad agent
+            for (int game = 0; game < batchSize; game++) {
+                int cell;
+                do {
+                    cell = random.nextInt(cellCount);
+                } while (observations[game * cellCount + cell] != UNOPENED);
+
+                actions[game] = cell;
+            }
+
+            environment.step(actions, observations, rewards, dones);
+
+            for (boolean done : dones) {
+                if (done) games++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("%,d games x %,d steps in %.2f s: %,.0f game steps/s, %,d games finished%n",
+            batchSize, steps, seconds, (double) batchSize * steps / seconds, games);
+    }
+}
@@ -1,6 +1,8 @@
 import javafx.geometry.Point2D;
 
+import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -9,160 +11,249 @@ import java.util.concurrent.ThreadLocalRandom;
  * @author Evan Razzaque
  */
 public class Board {
-    private final int[][] board;
-    private final int cols, rows;
-    private final int cellCount, mines;
-
+    private static final Metrics.Timer MINE_PLACEMENT_TIMER = Metrics.timer("board.placeMines");
+    private static final Metrics.Timer DIG_TIMER = Metrics.timer("board.dig");
+    private static final Metrics.Timer CHORD_TIMER = Metrics.timer("board.chord");
+    private static final Metrics.Timer SNAPSHOT_TIMER = Metrics.timer("board.snapshot");
+
+    private final int[] board;
+    private final Topology topology;
+    private final int width;
+    private final int cellCount;
+    private int mines;
+
+    // The neighbour table of the topology, see Topology#getNeighbourStarts()
+    private final int[] neighbourStarts;
+    private final int[] neighbours;
+    private final byte[] adjacentMines;
+
+    private long seed;
     private int cellsDug;
     private int flags;
     private Point2D clickedMineCell;
     private boolean gameLost;
     private boolean gameWon;
 
+    // Cells waiting to be opened by the flood fill
+    private final int[] digQueue;
+    // The number of flood fill waves of the last dig, used for profiling
+    private int digDepth;
+
+    // Opened cells with adjacent mines which border unopened cells, by index
+    private final IntSet frontier;
+    // Frontier cells whose surroundings changed since the assistant last looked at them
+    private final IntSet dirtyFrontier;
+    // Cells opened by the current move
+    private final IntSet openedCells;
+
+    // Cells changed since the changes were last cleared, and the state of each one before its first change
+    private final IntSet changedCells;
+    private final int[] previousStates;
+
+    // Chunks changed since the last snapshot, which shares its other chunks with the next one
+    private final IntSet dirtyChunks;
+    private BoardSnapshot lastSnapshot;
+
+    // The stream the changes of each move are published to, and the cells changed by the current move
+    private BoardEventStream eventStream;
+    private IntSet moveCells;
+    private int[] moveOldStates;
+    // The counts and outcome of the last event published, so moves that change only those are still published
+    private int publishedFlags, publishedCellsDug;
+    private boolean publishedGameLost, publishedGameWon;
+
     /**
-     * A constructor to set up the board.
-     * The board itself contains 2 extra rows and columns
-     * to prevent array out of bounds errors,
-     * which means cells will be addressed using 1-based indexing rather than 0-based.
+     * A constructor to set up a standard board.
+     * For compatibility with the original padded board, cells are addressed using 1-based indexing
+     * rather than 0-based.
      *
      * @param cols Number of columns
      * @param rows Number of rows
      * @param mines Number of mines
-     * @see #padBoard()
      */
     public Board(int cols, int rows, int mines) {
-        this.cols = cols;
-        this.rows = rows;
+        this(Topology.of(Topology.Kind.SQUARE, cols, rows), mines);
+    }
 
-        board = new int[rows + 2][cols + 2];
-        padBoard();
+    /**
+     * A constructor to set up a board with any topology.
+     * Cells are addressed using 1-based indexing on the grid of the topology.
+     *
+     * @param topology The topology, which defines the size of the board and the neighbours of each cell
+     * @param mines Number of mines
+     */
+    public Board(Topology topology, int mines) {
+        this.topology = topology;
+        width = topology.getWidth();
+        cellCount = topology.getCellCount();
 
-        cellCount = rows * cols;
+        board = new int[cellCount];
+        adjacentMines = new byte[cellCount];
+        neighbourStarts = topology.getNeighbourStarts();
+        neighbours = topology.getNeighbours();
 
         this.mines = mines;
         flags = mines;
+
+        digQueue = new int[cellCount];
+        frontier = new IntSet(cellCount);
+        dirtyFrontier = new IntSet(cellCount);
+        openedCells = new IntSet(cellCount);
+        changedCells = new IntSet(cellCount);
+        previousStates = new int[cellCount];
+        dirtyChunks = new IntSet(BoardSnapshot.getChunkCount(topology));
     }
 
     /**
-     * A method to start the game around cell (x, y).
+     * A constructor to set up a board without mines, whose mines are placed one by one with {@link #placeMine(int)}
+     * (such as a layout being loaded, see {@link LayoutIO}). Such a board is started as soon as it is set up,
+     * so {@link #start(int, int)} must not be called.
      *
-     * @param x Cell column
-     * @param y Cell row
-     * @see #placeMines(int, int)
+     * @param topology The topology, which defines the size of the board and the neighbours of each cell
      */
-    public void start(int x, int y) {
-        placeMines(mines, x % cols + cols * y);
+    Board(Topology topology) {
+        this(topology, 0);
     }
 
     /**
-     * A method to set the state of the cells outside the board to {@link Cell#BORDER},
-     * which is used to prevent being able to dig outside the board bounds.
+     * A method to start the game around cell (x, y), with a random seed.
+     *
+     * @param x Cell column (0-based)
+     * @param y Cell row (0-based)
+     * @see #start(int, int, long)
      */
-    private void padBoard() {
-        Arrays.fill(board[0], Cell.BORDER);
-        Arrays.fill(board[board.length - 1], Cell.BORDER);
-
-        for (int i = 1; i < board.length - 1; i++) {
-            board[i][0] = Cell.BORDER;
-            board[i][board[0].length - 1] = Cell.BORDER;
-        }
+    public void start(int x, int y) {
+        start(x, y, ThreadLocalRandom.current().nextLong());
     }
 
     /**
-     * A method to convert a numeric value to a point.
+     * A method to start the game around cell (x, y). The same seed and cell always give the same mines.
      *
-     * @param value The value to convert
-     * @return The coordinate from the numeric value
+     * @param x Cell column (0-based)
+     * @param y Cell row (0-based)
+     * @param seed The seed of the mine placement
+     * @see #placeMines(int, int)
      */
-    private Point valueToPoint(int value) {
-        return new Point(value % cols, value / cols);
+    public void start(int x, int y, long seed) {
+        EngineEvents.MinePlacement event = new EngineEvents.MinePlacement();
+        long startTime = MINE_PLACEMENT_TIMER.start();
+        event.begin();
+
+        this.seed = seed;
+        placeMines(mines, topology.index(x, y));
+        publishMove(BoardEventStream.Move.START, topology.index(x, y));
+
+        MINE_PLACEMENT_TIMER.stop(startTime);
+
+        if (event.shouldCommit()) {
+            event.cols = width;
+            event.rows = topology.getHeight();
+            event.mines = mines;
+            event.commit();
+        }
     }
 
     /**
-     * A method to place the mines on the board.
+     * A method to place the mines on the board, and count the adjacent mines of each cell.
      *
      * @param mineCount Number of mines to place
-     * @param origin The position of the cell that is excluded from having a mine.
+     * @param origin The index of the cell that is excluded from having a mine.
      */
     private void placeMines(int mineCount, int origin) {
-        ThreadLocalRandom.current()
+        new SplittableRandom(seed)
             .ints(0, cellCount)
             .distinct()
-            .filter(value -> value != origin)
-            .limit(mineCount).forEach(value -> {
-                Point cell = valueToPoint(value);
-                board[cell.y() + 1][cell.x() + 1] = Cell.MINE;
-            });
+            .filter(index -> index != origin)
+            .limit(mineCount).forEach(this::addMine);
     }
 
     /**
-     * A method to search and perform a callback on each adjacent cell. This method will also increment a counter based
-     * on the user-defined callback
+     * A method to place a mine on a cell and count it as adjacent to the neighbours of the cell.
      *
-     * @param x Cell column
-     * @param y Cell row
-     * @param callback The callback to run. If the callback returns true, the counter is incremented by 1. Otherwise,
-     *                nothing happens.
-     * @return The value of the counter, or -1 if the player loses the game
+     * @param index The index of the cell, which must not have a mine
      */
-    private int searchAdjacentCells(int x, int y, TriFunction<Integer, Integer, Integer> callback) {
-        int counter = 0;
-
-        for (int a = 0; a < 8; a++) {
-            int col = x + (int) Math.round(Math.cos(a * 0.75));
-            int row = y + (int) Math.round(Math.sin(a * 0.75));
+    private void addMine(int index) {
+        setCell(index, Cell.MINE);
 
-            boolean objectFound = callback.apply(col, row, counter);
-            if (objectFound) counter++;
-            if (gameLost) return -1;
+        for (int i = neighbourStarts[index]; i < neighbourStarts[index + 1]; i++) {
+            adjacentMines[neighbours[i]]++;
         }
+    }
 
-        return counter;
+    /**
+     * A method to add a mine to a board set up with {@link #Board(Topology)}, along with a flag for it.
+     *
+     * @param index The index of the cell
+     */
+    void placeMine(int index) {
+        if ((board[index] & Cell.MINE) > 0) return;
+
+        addMine(index);
+        mines++;
+        flags++;
     }
 
     /**
-     * A method to dig around the cell (x, y) until all paths (function calls) have reached a cell with adjacent
-     * mines or have reached the border.
+     * A method to dig a cell. If the cell has no adjacent mines, the flood fill digs around it in waves
+     * until every path has reached a cell with adjacent mines or the edge of the board.
      *
-     * @param x Cell column
-     * @param y Cell row
-     * @param areCellsEmpty A boolean to determine if a cell contains no adjacent mines
-     * @return The state of the last dug cell
+     * @param index The index of the cell
+     * @return The state of the dug cell, or {@link Cell#FLAG} if it is protected by a flag
      */
-    private int dig(int x, int y, boolean areCellsEmpty) {
-        if (board[y][x] == Cell.MINE) {
+    private int dig(int index) {
+        int cell = board[index];
+
+        if (cell == Cell.MINE) {
             return Cell.MINE;
-        } else if (board[y][x] == Cell.MINE_FLAGGED || (board[y][x] & Cell.CHORD_FLAG) > 0) {
+        } else if (cell == Cell.MINE_FLAGGED || (cell & Cell.CHORD_FLAG) > 0) {
             return Cell.FLAG;
-        } else if (board[y][x] == Cell.FLAG) {
-            toggleFlag(x, y);
+        } else if ((cell & Cell.OPENED) > 0) {
+            return Cell.OPENED;
         }
 
-        if (!areCellsEmpty) {
-            if ((board[y][x] & Cell.OPENED) > 0) return Cell.OPENED;
-            board[y][x] = Cell.OPENED;
-            cellsDug++;
-        }
+        open(index);
+        if (adjacentMines[index] > 0) return Cell.OPENED;
 
-        int adjacentMines = searchAdjacentCells(x, y, (col, row, mineCount) -> {
-            int cell = board[row][col];
+        int head = 0;
+        int tail = 0;
+        int waveEnd = 1;
+        digQueue[tail++] = index;
 
-            if (areCellsEmpty && cell < Cell.CHORD_FLAG) {
-                dig(col, row, false);
-            } else return (cell & Cell.MINE) > 0;
+        while (head < tail) {
+            int current = digQueue[head++];
 
-            return false;
-        });
+            for (int i = neighbourStarts[current]; i < neighbourStarts[current + 1]; i++) {
+                int neighbour = neighbours[i];
 
-        if (adjacentMines > 0) {
-            Cell.storeAdjacentMineCount(x, y, adjacentMines, board);
-            return Cell.OPENED;
+                // Flags that have not been used for chording are dug through
+                if (board[neighbour] >= Cell.CHORD_FLAG) continue;
+
+                open(neighbour);
+                if (adjacentMines[neighbour] == 0) digQueue[tail++] = neighbour;
+            }
+
+            if (head == waveEnd) {
+                digDepth++;
+                waveEnd = tail;
+            }
         }
 
-        if (!areCellsEmpty) dig(x, y, true);
         return Cell.OPENED;
     }
 
+    /**
+     * A method to open a cell which is not a mine, removing its flag if it has one.
+     *
+     * @param index The index of the cell
+     */
+    private void open(int index) {
+        if (board[index] == Cell.FLAG) toggleFlag(index);
+
+        setCell(index, Cell.openedState(adjacentMines[index]));
+        cellsDug++;
+        openedCells.add(index);
+    }
+
     /**
      * A method to initiate digging a cell.
      *
@@ -170,16 +261,44 @@ public class Board {
      * @param y Cell row
      */
     public void dig(int x, int y) {
-        if ((board[y][x] & Cell.FLAG) > 0) return;
+        digCell(index(x, y));
+        updateFrontier();
+        publishMove(BoardEventStream.Move.DIG, index(x, y));
+    }
 
-        int cell = dig(x, y, false);
+    /**
+     * A method to dig a cell without updating the frontier.
+     *
+     * @param index The index of the cell
+     * @see #dig(int, int)
+     */
+    private void digCell(int index) {
+        if ((board[index] & Cell.FLAG) > 0) return;
+
+        EngineEvents.Dig event = new EngineEvents.Dig();
+        long startTime = DIG_TIMER.start();
+        int cellsDugBefore = cellsDug;
+        digDepth = 0;
+        event.begin();
+
+        int cell = dig(index);
 
         if (cell == Cell.MINE) {
-            clickedMineCell = new Point2D(x, y);
+            clickedMineCell = toPoint(index);
             gameLost = true;
         }
 
         if (cellCount - mines == cellsDug) gameWon = true;
+
+        DIG_TIMER.stop(startTime);
+
+        if (event.shouldCommit()) {
+            event.x = getX(index);
+            event.y = getY(index);
+            event.cellsOpened = cellsDug - cellsDugBefore;
+            event.depth = digDepth;
+            event.commit();
+        }
     }
 
     /**
@@ -189,22 +308,25 @@ public class Board {
      * @param y Cell row
      */
     public void toggleFlag(int x, int y) {
-        int cell = board[y][x];
+        toggleFlag(index(x, y));
+        publishMove(BoardEventStream.Move.FLAG, index(x, y));
+    }
+
+    private void toggleFlag(int index) {
+        int cell = board[index];
         if (cell >= Cell.OPENED) return;
 
         if ((cell & Cell.FLAG) == 0) {
             if (flags <= 0) return;
 
             flags--;
-            board[y][x] += Cell.FLAG;
+            setCell(index, cell + Cell.FLAG);
         } else {
             flags++;
-            board[y][x] -= Cell.FLAG;
-
-            if ((cell & Cell.CHORD_FLAG) > 0) {
-                board[y][x] -= Cell.CHORD_FLAG;
-            }
+            setCell(index, cell & ~Cell.FLAG_CHORDED);
         }
+
+        markFrontierDirty(index);
     }
 
     /**
@@ -215,33 +337,304 @@ public class Board {
      * @param y Cell row
      */
     public void chord(int x, int y) {
-        int adjacentMines = Cell.getAdjacentMines(board[y][x]);
+        int index = index(x, y);
+        int adjacentMines = Cell.getAdjacentMines(board[index]);
         if (adjacentMines <= 0) return;
 
-        int flags = searchAdjacentCells(x, y, (col, row, flagCount) -> {
-            if ((board[row][col] & Cell.FLAG) == 0) return false;
+        EngineEvents.Chord event = new EngineEvents.Chord();
+        long startTime = CHORD_TIMER.start();
+        int cellsDugBefore = cellsDug;
+        event.begin();
+
+        int flags = 0;
 
-            if ((board[row][col] & Cell.CHORD_FLAG) == 0) {
-                board[row][col] += Cell.CHORD_FLAG;
+        for (int i = neighbourStarts[index]; i < neighbourStarts[index + 1]; i++) {
+            int neighbour = neighbours[i];
+            if ((board[neighbour] & Cell.FLAG) == 0) continue;
+
+            if ((board[neighbour] & Cell.CHORD_FLAG) == 0) setCell(neighbour, board[neighbour] | Cell.CHORD_FLAG);
+            flags++;
+        }
+
+        if (flags == adjacentMines) {
+            for (int i = neighbourStarts[index]; i < neighbourStarts[index + 1] && !gameLost; i++) {
+                int cell = dig(neighbours[i]);
+
+                if (cell == Cell.MINE) {
+                    clickedMineCell = toPoint(neighbours[i]);
+                    gameLost = true;
+                }
             }
 
-            return true;
-        });
+            // A chord can open the last safe cells, like a dig
+            if (cellCount - mines == cellsDug) gameWon = true;
+        }
 
-        if (flags != adjacentMines) return;
+        updateFrontier();
+        publishMove(BoardEventStream.Move.CHORD, index);
+        CHORD_TIMER.stop(startTime);
 
-        searchAdjacentCells(x, y, (col, row, unused) -> {
-            if (board[row][col] == Cell.BORDER) return false;
+        if (event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.cellsOpened = cellsDug - cellsDugBefore;
+            event.performed = flags == adjacentMines;
+            event.commit();
+        }
+    }
+
+    /**
+     * A method to apply a batch of moves, such as the ones found by the {@link Assistant}.
+     * The frontier is only updated once, after every move was applied.
+     *
+     * @param mineCells The indices of the cells to flag
+     * @param safeCells The indices of the cells to dig
+     * @return The number of moves applied. Flags are not placed once none are left, cells already opened
+     * (or flagged) are not dug, and the rest of the batch is skipped once the game is lost.
+     */
+    int applyMoves(IntSet mineCells, IntSet safeCells) {
+        int applied = 0;
+
+        for (int i = 0; i < mineCells.size(); i++) {
+            int index = mineCells.get(i);
+            if ((board[index] & Cell.FLAG) > 0) continue;
+
+            toggleFlag(index);
+            if ((board[index] & Cell.FLAG) > 0) applied++;
+        }
 
-            int cell = dig(col, row, false);
+        for (int i = 0; i < safeCells.size() && !gameLost; i++) {
+            int index = safeCells.get(i);
+            if (board[index] >= Cell.OPENED || (board[index] & Cell.FLAG) > 0) continue;
 
-            if (cell == Cell.MINE) {
-                clickedMineCell = new Point2D(col, row);
-                gameLost = true;
+            digCell(index);
+            applied++;
+        }
+
+        updateFrontier();
+        publishMove(BoardEventStream.Move.BATCH, -1);
+
+        return applied;
+    }
+
+    /**
+     * A method to update the frontier around the cells opened by the last move.
+     * Only the opened cells and their neighbours are visited.
+     */
+    private void updateFrontier() {
+        for (int i = 0; i < openedCells.size(); i++) {
+            int index = openedCells.get(i);
+
+            if (board[index] > Cell.OPENED && hasUnopenedNeighbour(index)) {
+                frontier.add(index);
+                dirtyFrontier.add(index);
             }
 
-            return false;
-        });
+            for (int j = neighbourStarts[index]; j < neighbourStarts[index + 1]; j++) {
+                int neighbour = neighbours[j];
+                if (!frontier.contains(neighbour)) continue;
+
+                if (hasUnopenedNeighbour(neighbour)) {
+                    dirtyFrontier.add(neighbour);
+                } else {
+                    frontier.remove(neighbour);
+                    dirtyFrontier.remove(neighbour);
+                }
+            }
+        }
+
+        openedCells.clear();
+    }
+
+    /**
+     * A method to change the state of a cell, remembering its previous state if it is the first change since
+     * the changes were last cleared.
+     *
+     * @param index The index of the cell
+     * @param state The new state of the cell
+     */
+    private void setCell(int index, int state) {
+        if (changedCells.add(index)) previousStates[index] = board[index];
+        if (eventStream != null && moveCells.add(index)) moveOldStates[index] = board[index];
+        dirtyChunks.add(index >> BoardSnapshot.CHUNK_SHIFT);
+
+        board[index] = state;
+    }
+
+    /**
+     * A method to publish the changes of a move to the event stream, if there is one and the move changed any cell,
+     * the flags, the number of dug cells or the outcome of the game.
+     *
+     * @param move The kind of move
+     * @param index The index of the cell the move was made on, or -1 if the move has no single cell
+     */
+    private void publishMove(BoardEventStream.Move move, int index) {
+        if (eventStream == null) return;
+
+        // A move that changed nothing is not published, but digging a mine changes the outcome without any cell
+        if (moveCells.isEmpty() && flags == publishedFlags && cellsDug == publishedCellsDug
+                && gameLost == publishedGameLost && gameWon == publishedGameWon) {
+            return;
+        }
+
+        BoardEventStream.Event event = eventStream.claim();
+        event.move = move;
+        event.x = (index < 0)? 0 : getX(index);
+        event.y = (index < 0)? 0 : getY(index);
+        event.setCellCount(moveCells.size());
+
+        for (int i = 0; i < moveCells.size(); i++) {
+            int cell = moveCells.get(i);
+
+            event.cells[i] = cell;
+            event.oldStates[i] = moveOldStates[cell];
+            event.newStates[i] = board[cell];
+        }
+
+        event.flags = flags;
+        event.cellsDug = cellsDug;
+        event.gameLost = gameLost;
+        event.gameWon = gameWon;
+
+        eventStream.publish();
+        moveCells.clear();
+        rememberPublishedState();
+    }
+
+    private void rememberPublishedState() {
+        publishedFlags = flags;
+        publishedCellsDug = cellsDug;
+        publishedGameLost = gameLost;
+        publishedGameWon = gameWon;
+    }
+
+    /**
+     * A method to publish the changes of every following move to a stream. The stream must only be written by
+     * the thread playing this board.
+     *
+     * @param eventStream The stream, or null to stop publishing
+     */
+    public void setEventStream(BoardEventStream eventStream) {
+        if (eventStream != null && moveCells == null) {
+            moveCells = new IntSet(cellCount);
+            moveOldStates = new int[cellCount];
+        }
+
+        if (moveCells != null) moveCells.clear();
+        rememberPublishedState();
+        this.eventStream = eventStream;
+    }
+
+    /**
+     * Gets the cells changed since {@link #clearChanges()} was last called (by placing the mines, digging,
+     * flagging or chording), so views of the board can be updated from only the cells that changed.
+     *
+     * @return The changed cells, by index
+     * @see #getPreviousState(int)
+     */
+    IntSet getChangedCells() {
+        return changedCells;
+    }
+
+    /**
+     * Gets the state of a changed cell before it was first changed.
+     *
+     * @param index The index of a cell in {@link #getChangedCells()}
+     * @return The previous state of the cell
+     */
+    int getPreviousState(int index) {
+        return previousStates[index];
+    }
+
+    /**
+     * A method to forget the changed cells, once every view of the board was updated.
+     */
+    void clearChanges() {
+        changedCells.clear();
+    }
+
+    /**
+     * A method to mark the frontier cells around a cell as dirty.
+     *
+     * @param index The index of the cell
+     */
+    private void markFrontierDirty(int index) {
+        for (int i = neighbourStarts[index]; i < neighbourStarts[index + 1]; i++) {
+            if (frontier.contains(neighbours[i])) dirtyFrontier.add(neighbours[i]);
+        }
+    }
+
+    private boolean hasUnopenedNeighbour(int index) {
+        for (int i = neighbourStarts[index]; i < neighbourStarts[index + 1]; i++) {
+            if (board[neighbours[i]] < Cell.OPENED) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * A method to get the neighbours of a cell.
+     *
+     * @param index The index of the cell
+     * @param neighbours The array to store the neighbour indices in,
+     *                   with room for at least {@link Topology#getMaxNeighbours()} cells
+     * @return The number of neighbours
+     */
+    int getNeighbours(int index, int[] neighbours) {
+        int count = neighbourStarts[index + 1] - neighbourStarts[index];
+        System.arraycopy(this.neighbours, neighbourStarts[index], neighbours, 0, count);
+
+        return count;
+    }
+
+    /**
+     * Gets the frontier cells whose surroundings changed since they were last removed from this set.
+     * Cells are added when they are opened, when a neighbour is opened and when a neighbour is flagged or unflagged.
+     *
+     * @return The dirty frontier cells, by index
+     */
+    IntSet getDirtyFrontier() {
+        return dirtyFrontier;
+    }
+
+    int getFrontierSize() {
+        return frontier.size();
+    }
+
+    /**
+     * Gets the number of cell indices.
+     *
+     * @return The bound of the cell indices
+     */
+    int getIndexBound() {
+        return cellCount;
+    }
+
+    /**
+     * A method to get the index of the cell (x, y).
+     *
+     * @param x Cell column (1-based)
+     * @param y Cell row (1-based)
+     * @return The cell index
+     */
+    int index(int x, int y) {
+        return (y - 1) * width + x - 1;
+    }
+
+    int getX(int index) {
+        return index % width + 1;
+    }
+
+    int getY(int index) {
+        return index / width + 1;
+    }
+
+    int getCellAt(int index) {
+        return board[index];
+    }
+
+    private Point2D toPoint(int index) {
+        return new Point2D(getX(index), getY(index));
     }
 
     /**
@@ -252,6 +645,23 @@ public class Board {
         gameLost = true;
     }
 
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Gets the seed the mines were placed with.
+     *
+     * @return The seed, or 0 if the mines were not placed by {@link #start(int, int, long)} (such as a loaded layout)
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getMines() {
+        return mines;
+    }
+
     public int getFlags() {
         return flags;
     }
@@ -264,7 +674,146 @@ public class Board {
      * @return The state of the cell
      */
     public int getCell(int x, int y) {
-        return board[y][x];
+        return board[index(x, y)];
+    }
+
+    /**
+     * A method to copy the states of a row of cells into an array.
+     *
+     * @param y Cell row
+     * @param cells The array to copy the states into
+     * @param offset The position of the first cell in the array
+     * @param minesVisible Whether to copy the mines of unopened cells, or to copy the cells as the player sees them
+     * @see #copyRegion(int, int, int, int, int[], int, boolean)
+     */
+    public void copyRow(int y, int[] cells, int offset, boolean minesVisible) {
+        copyRegion(1, y, width, 1, cells, offset, minesVisible);
+    }
+
+    /**
+     * A method to copy the states of a rectangle of cells into an array, row after row.
+     *
+     * @param x Column of the top left cell
+     * @param y Row of the top left cell
+     * @param cols Number of columns to copy
+     * @param rows Number of rows to copy
+     * @param cells The array to copy the states into
+     * @param offset The position of the top left cell in the array
+     * @param minesVisible Whether to copy the mines of unopened cells, or to copy the cells as the player sees them
+     * (see {@link Cell#visibleState(int)})
+     * @throws IndexOutOfBoundsException If the rectangle is outside the board, or does not fit in the array
+     */
+    public void copyRegion(int x, int y, int cols, int rows, int[] cells, int offset, boolean minesVisible) {
+        if (x < 1 || y < 1 || cols < 0 || rows < 0 || x - 1 + cols > width || y - 1 + rows > topology.getHeight()) {
+            throw new IndexOutOfBoundsException("Region " + cols + "x" + rows + " at (" + x + ", " + y
+                + ") is outside the board");
+        }
+
+        if (offset < 0 || offset + (long) cols * rows > cells.length) {
+            throw new IndexOutOfBoundsException("Region of " + cols * rows + " cells at " + offset
+                + " does not fit in " + cells.length + " cells");
+        }
+
+        for (int row = 0; row < rows; row++) {
+            int from = index(x, y + row);
+            int to = offset + row * cols;
+
+            if (minesVisible) {
+                System.arraycopy(board, from, cells, to, cols);
+                continue;
+            }
+
+            for (int i = 0; i < cols; i++) {
+                cells[to + i] = Cell.visibleState(board[from + i]);
+            }
+        }
+    }
+
+    /**
+     * Gets a read-only view of the states of every cell, by index (see {@link Topology#index(int, int)}).
+     * The view is not a copy, so it shows the moves made after it was created.
+     *
+     * @return The view
+     */
+    public IntBuffer getCellView() {
+        return IntBuffer.wrap(board).asReadOnlyBuffer();
+    }
+
+    /**
+     * A method to count the 3BV of the board, which is the least number of clicks needed to open every safe cell
+     * without flagging: one per opening (a region of cells without adjacent mines, with its border),
+     * plus one per safe cell outside of every opening.
+     *
+     * @return The 3BV of the board
+     */
+    public int get3BV() {
+        boolean[] counted = new boolean[cellCount];
+        int boardValue = 0;
+
+        for (int index = 0; index < cellCount; index++) {
+            if (counted[index] || adjacentMines[index] > 0 || (board[index] & Cell.MINE) > 0) continue;
+
+            // Marks the whole opening, reusing the dig queue
+            boardValue++;
+            counted[index] = true;
+
+            int head = 0;
+            int tail = 0;
+            digQueue[tail++] = index;
+
+            while (head < tail) {
+                int current = digQueue[head++];
+
+                for (int i = neighbourStarts[current]; i < neighbourStarts[current + 1]; i++) {
+                    int neighbour = neighbours[i];
+                    if (counted[neighbour]) continue;
+
+                    counted[neighbour] = true;
+                    if (adjacentMines[neighbour] == 0) digQueue[tail++] = neighbour;
+                }
+            }
+        }
+
+        for (int index = 0; index < cellCount; index++) {
+            if (!counted[index] && (board[index] & Cell.MINE) == 0) boardValue++;
+        }
+
+        return boardValue;
+    }
+
+    /**
+     * A method to take a snapshot of the board, which can be read by other threads while moves are made.
+     * Only the chunks changed since the last snapshot are copied.
+     *
+     * @return The snapshot
+     */
+    public BoardSnapshot snapshot() {
+        long startTime = SNAPSHOT_TIMER.start();
+        int[][] chunks;
+
+        if (lastSnapshot == null) {
+            chunks = new int[BoardSnapshot.getChunkCount(topology)][];
+            for (int chunk = 0; chunk < chunks.length; chunk++) copyChunk(chunks, chunk);
+        } else if (dirtyChunks.isEmpty()) {
+            // Chunks are never modified, so the unchanged ones can be shared as a whole
+            chunks = lastSnapshot.getChunks();
+        } else {
+            chunks = lastSnapshot.getChunks().clone();
+            for (int i = 0; i < dirtyChunks.size(); i++) copyChunk(chunks, dirtyChunks.get(i));
+        }
+
+        dirtyChunks.clear();
+        long version = (lastSnapshot == null)? 1 : lastSnapshot.getVersion() + 1;
+        lastSnapshot = new BoardSnapshot(topology, chunks, version, mines, flags, cellsDug, gameLost, gameWon,
+            clickedMineCell);
+
+        SNAPSHOT_TIMER.stop(startTime);
+        return lastSnapshot;
+    }
+
+    private void copyChunk(int[][] chunks, int chunk) {
+        int start = chunk << BoardSnapshot.CHUNK_SHIFT;
+        chunks[chunk] = Arrays.copyOfRange(board, start, Math.min(start + BoardSnapshot.CHUNK_SIZE, cellCount));
     }
 
     /**
@@ -283,4 +832,4 @@ public class Board {
     public boolean isGameWon() {
         return gameWon;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,337 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A stream of the changes made to a {@link Board} by each move, for recorders, spectators and analytics.<br><br>
+ * The stream is a ring buffer with a single producer (the thread playing the board) and any number of subscribers.
+ * Its events are allocated once and reused, and their arrays only grow when a move changes more cells than
+ * any move before it, so publishing does not allocate.<br><br>
+ * Nothing is locked: every event has a version which is odd while the producer writes it, and subscribers copy an
+ * event and then check that its version did not change, retrying nothing but reporting an overflow instead.
+ * The producer never waits for subscribers, so a subscriber that falls more than a whole buffer behind misses events
+ * and is told so by {@link Subscription#poll(Event)} returning {@link Poll#OVERFLOW}.
+ *
+ * @author Evan Razzaque
+ * @see Board#setEventStream(BoardEventStream)
+ */
+public class BoardEventStream {
+    /**
+     * The kinds of moves.
+     */
+    public enum Move {
+        START, DIG, FLAG, CHORD, BATCH
+    }
+
+    /**
+     * The results of polling a subscription.
+     */
+    public enum Poll {
+        /** The next event was copied */
+        EVENT,
+        /** No event was published since the last one read */
+        EMPTY,
+        /** Events were overwritten before they were read, and the subscription skipped to the oldest available one */
+        OVERFLOW
+    }
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(Event.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Event[] events;
+    private final int mask;
+
+    // The sequence of the event being written by the producer, and of the last event published
+    private long next;
+    private volatile long published = -1;
+
+    /**
+     * A constructor to create an empty stream.
+     *
+     * @param capacity The number of events kept for subscribers, rounded up to a power of 2
+     */
+    public BoardEventStream(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        events = new Event[size];
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event();
+        }
+    }
+
+    /**
+     * A method to subscribe to the events published from now on.
+     *
+     * @return The subscription
+     */
+    public Subscription subscribe() {
+        return new Subscription(published + 1);
+    }
+
+    /**
+     * Gets the number of events published since the stream was created.
+     *
+     * @return Number of events
+     */
+    public long getPublishedCount() {
+        return published + 1;
+    }
+
+    /**
+     * A method to claim the next event for writing. Must be followed by {@link #publish()}.
+     *
+     * @return The event to write
+     */
+    Event claim() {
+        Event event = events[(int) (next & mask)];
+
+        // An odd version tells subscribers the event is being written
+        VERSION.setOpaque(event, 2 * next + 1);
+        VarHandle.storeStoreFence();
+
+        event.sequence = next;
+        return event;
+    }
+
+    /**
+     * A method to publish the claimed event to the subscribers.
+     */
+    void publish() {
+        Event event = events[(int) (next & mask)];
+
+        VERSION.setRelease(event, 2 * next + 2);
+        published = next;
+        next++;
+    }
+
+    /**
+     * The changes made by a single move. Events are reused, so a subscriber reads an event into its own copy.
+     */
+    public static class Event {
+        private long version;
+
+        long sequence;
+        Move move;
+        int x, y;
+        int cellCount;
+        int[] cells = new int[16];
+        int[] oldStates = new int[16];
+        int[] newStates = new int[16];
+        int flags;
+        int cellsDug;
+        boolean gameLost, gameWon;
+
+        /**
+         * A method to make room for the changed cells of a move.
+         *
+         * @param cellCount The number of changed cells
+         */
+        void setCellCount(int cellCount) {
+            this.cellCount = cellCount;
+            if (cellCount <= cells.length) return;
+
+            int length = Math.max(cellCount, cells.length * 2);
+            cells = new int[length];
+            oldStates = new int[length];
+            newStates = new int[length];
+        }
+
+        /**
+         * A method to copy another event into this one.
+         *
+         * @param other The event to copy
+         * @return false if the other event has fewer cell slots than cells, which only happens when it was being
+         * rewritten during the copy
+         */
+        private boolean copy(Event other) {
+            int[] otherCells = other.cells;
+            int[] otherOldStates = other.oldStates;
+            int[] otherNewStates = other.newStates;
+            int count = other.cellCount;
+
+            if (count < 0 || count > otherCells.length || count > otherOldStates.length
+                || count > otherNewStates.length) return false;
+
+            sequence = other.sequence;
+            move = other.move;
+            x = other.x;
+            y = other.y;
+            flags = other.flags;
+            cellsDug = other.cellsDug;
+            gameLost = other.gameLost;
+            gameWon = other.gameWon;
+
+            if (cells.length < count) {
+                cells = Arrays.copyOf(otherCells, count);
+                oldStates = Arrays.copyOf(otherOldStates, count);
+                newStates = Arrays.copyOf(otherNewStates, count);
+            } else {
+                System.arraycopy(otherCells, 0, cells, 0, count);
+                System.arraycopy(otherOldStates, 0, oldStates, 0, count);
+                System.arraycopy(otherNewStates, 0, newStates, 0, count);
+            }
+
+            cellCount = count;
+            return true;
+        }
+
+        /**
+         * Gets the number of the event, counting from 0 for the first event of the stream.
+         *
+         * @return The sequence number
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Move getMove() {
+            return move;
+        }
+
+        /**
+         * Gets the column of the cell the move was made on.
+         *
+         * @return Cell column (1-based, like the board), or 0 for moves without a cell
+         */
+        public int getX() {
+            return x;
+        }
+
+        /**
+         * Gets the row of the cell the move was made on.
+         *
+         * @return Cell row (1-based, like the board), or 0 for moves without a cell
+         */
+        public int getY() {
+            return y;
+        }
+
+        public int getCellCount() {
+            return cellCount;
+        }
+
+        /**
+         * Gets a changed cell.
+         *
+         * @param i The number of the change, from 0 to {@link #getCellCount()} - 1
+         * @return The index of the cell (see {@link Topology#index(int, int)})
+         */
+        public int getCell(int i) {
+            return cells[i];
+        }
+
+        public int getOldState(int i) {
+            return oldStates[i];
+        }
+
+        public int getNewState(int i) {
+            return newStates[i];
+        }
+
+        /**
+         * Gets the number of flags available after the move.
+         *
+         * @return Number of flags
+         */
+        public int getFlags() {
+            return flags;
+        }
+
+        public int getCellsDug() {
+            return cellsDug;
+        }
+
+        public boolean isGameLost() {
+            return gameLost;
+        }
+
+        public boolean isGameWon() {
+            return gameWon;
+        }
+    }
+
+    /**
+     * A reader of the stream, which keeps its own position. A subscription must only be used by one thread.
+     */
+    public class Subscription {
+        private long position;
+        private long missed;
+
+        private Subscription(long position) {
+            this.position = position;
+        }
+
+        /**
+         * A method to read the next event, without waiting for one to be published.
+         *
+         * @param into The event to copy the next event into
+         * @return {@link Poll#EVENT} if an event was read, {@link Poll#EMPTY} if there is no new event, or
+         * {@link Poll#OVERFLOW} if events were missed (nothing is read, the next poll reads the oldest event left)
+         */
+        public Poll poll(Event into) {
+            long last = published;
+            if (position > last) return Poll.EMPTY;
+            if (last - position >= events.length - 1) return skipTo(oldestAvailable());
+
+            Event event = events[(int) (position & mask)];
+            long expected = 2 * position + 2;
+
+            if ((long) VERSION.getAcquire(event) != expected) return skipTo(oldestAvailable());
+
+            boolean copied = into.copy(event);
+
+            // The copy only counts if the producer did not start rewriting the event meanwhile
+            VarHandle.loadLoadFence();
+            if (!copied || (long) VERSION.getOpaque(event) != expected) return skipTo(oldestAvailable());
+
+            position++;
+            return Poll.EVENT;
+        }
+
+        /**
+         * Gets the oldest event that cannot be overwritten before it is read,
+         * since the producer may already be writing the event after the last one published.
+         *
+         * @return The sequence number of the event
+         */
+        private long oldestAvailable() {
+            return published - events.length + 2;
+        }
+
+        private Poll skipTo(long newPosition) {
+            if (newPosition > position) {
+                missed += newPosition - position;
+                position = newPosition;
+            }
+
+            return Poll.OVERFLOW;
+        }
+
+        /**
+         * Gets the number of events this subscription missed because it fell behind.
+         *
+         * @return Number of missed events
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        /**
+         * Gets the sequence number of the next event to read.
+         *
+         * @return The position of the subscription
+         */
+        public long getPosition() {
+            return position;
+        }
+    }
+}
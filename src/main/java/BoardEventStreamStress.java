@@ -0,0 +1,147 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A stress test for {@link BoardEventStream}. One thread plays random moves on a board that publishes to a stream,
+ * while subscribers rebuild a copy of the board from the events: most read as fast as they can,
+ * and the last one sleeps after every event so it falls behind and overflows.<br><br>
+ * Once the game ends, every subscriber that did not miss an event must hold an exact copy of the board.
+ *
+ * @author Evan Razzaque
+ */
+public class BoardEventStreamStress {
+    /**
+     * A method to run the stress test.
+     *
+     * @param args [cols] [rows] [mines] [moves] [subscribers] [capacity]
+     * @throws InterruptedException If interrupted while waiting for the subscribers
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int cols = (args.length > 0)? Integer.parseInt(args[0]) : 1000;
+        int rows = (args.length > 1)? Integer.parseInt(args[1]) : 1000;
+        int mines = (args.length > 2)? Integer.parseInt(args[2]) : cols * rows / 6;
+        int moves = (args.length > 3)? Integer.parseInt(args[3]) : 2_000_000;
+        int subscriberCount = (args.length > 4)? Integer.parseInt(args[4]) : 3;
+        int capacity = (args.length > 5)? Integer.parseInt(args[5]) : 1024;
+
+        Board board = new Board(cols, rows, mines);
+        BoardEventStream stream = new BoardEventStream(capacity);
+        board.setEventStream(stream);
+
+        Subscriber[] subscribers = new Subscriber[subscriberCount];
+
+        for (int i = 0; i < subscriberCount; i++) {
+            subscribers[i] = new Subscriber(stream.subscribe(), cols * rows, i == subscriberCount - 1);
+            subscribers[i].thread.start();
+        }
+
+        long start = System.nanoTime();
+        play(board, cols, rows, moves);
+        long events = stream.getPublishedCount();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.done = true;
+            subscriber.thread.join();
+        }
+
+        System.out.printf("Published %,d events in %.2f s (%,.0f events/s)%n", events, elapsed, events / elapsed);
+        boolean consistent = true;
+
+        for (int i = 0; i < subscriberCount; i++) {
+            Subscriber subscriber = subscribers[i];
+            long missed = subscriber.subscription.getMissed();
+            String result;
+
+            if (missed > 0) {
+                result = "missed " + missed + " events (" + subscriber.overflows + " overflows)";
+            } else if (subscriber.matches(board)) {
+                result = "copy matches the board";
+            } else {
+                result = "copy does not match the board";
+                consistent = false;
+            }
+
+            System.out.printf("Subscriber %d%s: read %,d events, %s%n",
+                i, subscriber.slow? " (slow)" : "", subscriber.read, result);
+        }
+
+        if (!consistent) System.exit(1);
+    }
+
+    /**
+     * A method to play random moves on a board until the game is won or the moves run out.
+     * Mines are flagged rather than dug, so the game is never lost.
+     */
+    private static void play(Board board, int cols, int rows, int moves) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        board.start(cols / 2, rows / 2);
+
+        for (int move = 0; move < moves && !board.isGameWon(); move++) {
+            int x = random.nextInt(cols) + 1;
+            int y = random.nextInt(rows) + 1;
+            int cell = board.getCell(x, y);
+
+            if ((cell & Cell.OPENED) > 0) {
+                board.chord(x, y);
+            } else if ((cell & Cell.MINE) > 0) {
+                if ((cell & Cell.FLAG) == 0) board.toggleFlag(x, y);
+            } else {
+                board.dig(x, y);
+            }
+        }
+    }
+
+    /**
+     * A subscriber that applies every event it reads to its own copy of the board.
+     */
+    private static class Subscriber implements Runnable {
+        final BoardEventStream.Subscription subscription;
+        final Thread thread = new Thread(this);
+        final boolean slow;
+        final int[] cells;
+        final BoardEventStream.Event event = new BoardEventStream.Event();
+
+        volatile boolean done;
+        long read;
+        long overflows;
+
+        Subscriber(BoardEventStream.Subscription subscription, int cellCount, boolean slow) {
+            this.subscription = subscription;
+            this.slow = slow;
+            cells = new int[cellCount];
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                boolean finished = done;
+
+                switch (subscription.poll(event)) {
+                    case EVENT -> {
+                        for (int i = 0; i < event.getCellCount(); i++) {
+                            cells[event.getCell(i)] = event.getNewState(i);
+                        }
+
+                        read++;
+                        if (slow) LockSupport.parkNanos(10_000);
+                    }
+                    case OVERFLOW -> overflows++;
+                    case EMPTY -> {
+                        // The producer finished before the last poll, so every event was read
+                        if (finished) return;
+                        Thread.yield();
+                    }
+                }
+            }
+        }
+
+        boolean matches(Board board) {
+            for (int index = 0; index < cells.length; index++) {
+                if (cells[index] != board.getCellAt(index)) return false;
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+import javafx.application.Platform;
+import javafx.geometry.Point2D;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.io.Serial;
+import java.nio.IntBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A renderer for boards whose cells are too small to draw with a {@link javafx.scene.canvas.GraphicsContext}.<br><br>
+ * Each cell is drawn as a block of color (numbers are shown by the color of the number instead of text)
+ * into a back buffer. The image is split into square tiles, which are drawn in parallel on the common
+ * {@link ForkJoinPool} from a {@link BoardSnapshot} of the board, off the FX thread.
+ * Once the frame is finished, the FX thread copies it into the int array shared with a {@link PixelBuffer}
+ * within a single {@link PixelBuffer#updateBuffer} call, and it is shown on the next pulse.
+ * Frames requested while one is being drawn are dropped, except for the latest one, which is drawn next.<br><br>
+ * The pixel to cell mapping is computed once per image size, so drawing a pixel is a couple of table lookups.
+ *
+ * @author Evan Razzaque
+ */
+class BoardRasterizer {
+    private static final Metrics.Timer RENDER_TIMER = Metrics.timer("rasterizer.render");
+
+    private static final int TILE_SIZE = 128;
+
+    // Cells at least this many pixels wide get a grid line on their top and left edges
+    private static final int MIN_GRID_CELL_SIZE = 4;
+
+    private static final int GRID_COLOR = argb(Color.BLACK);
+    private static final int FLAG_COLOR = argb(Color.ORANGE);
+    private static final int MINE_COLOR = argb(Color.BLACK);
+    private static final int INCORRECT_FLAG_COLOR = argb(Color.MAGENTA);
+    private static final int CLICKED_MINE_COLOR = argb(Color.RED);
+    private static final int BACKGROUND_COLOR = argb(Color.WHITE);
+
+    private final Topology topology;
+    private final int width, height;
+    private final int[] pixels, backPixels;
+    private final PixelBuffer<IntBuffer> pixelBuffer;
+    private final WritableImage image;
+
+    private final int unopenedColor, openedColor;
+    private final int[] numberColors;
+
+    // The grid row of each pixel row, and the grid column of each pixel column (for even and odd rows)
+    private final int[] rowOfPixel;
+    private final int[] evenColumnOfPixel, oddColumnOfPixel;
+    private final boolean[] rowEdges, evenColumnEdges, oddColumnEdges;
+
+    // The frame being drawn
+    private BoardSnapshot snapshot;
+    private boolean minesVisible;
+    private int clickedMineIndex;
+
+    // The latest frame requested while another one was being drawn (only used on the FX thread)
+    private boolean drawing, hasPendingFrame;
+    private BoardSnapshot pendingSnapshot;
+    private boolean pendingMinesVisible;
+
+    /**
+     * A constructor to create a renderer for boards of a topology.
+     *
+     * @param topology The topology of the boards
+     * @param width Width of the image in pixels
+     * @param height Height of the image in pixels
+     * @param unopenedColor Color of unopened cells
+     * @param openedColor Color of opened cells without adjacent mines
+     * @param numberColors Colors of opened cells by their number of adjacent mines (starting from 1)
+     */
+    BoardRasterizer(Topology topology, int width, int height, Color unopenedColor, Color openedColor,
+                    Color[] numberColors) {
+        this.topology = topology;
+        this.width = width;
+        this.height = height;
+        this.unopenedColor = argb(unopenedColor);
+        this.openedColor = argb(openedColor);
+        this.numberColors = new int[numberColors.length];
+
+        for (int i = 0; i < numberColors.length; i++) {
+            this.numberColors[i] = argb(numberColors[i]);
+        }
+
+        IntBuffer buffer = IntBuffer.allocate(width * height);
+        pixels = buffer.array();
+        backPixels = new int[width * height];
+        pixelBuffer = new PixelBuffer<>(width, height, buffer, PixelFormat.getIntArgbPreInstance());
+        image = new WritableImage(pixelBuffer);
+
+        // Odd rows of hexagonal boards are shifted right by half a cell
+        boolean isHex = topology.getKind() == Topology.Kind.HEX;
+        double cellWidth = width / (topology.getWidth() + (isHex? 0.5 : 0));
+        double cellHeight = (double) height / topology.getHeight();
+        boolean hasGrid = Math.min(cellWidth, cellHeight) >= MIN_GRID_CELL_SIZE;
+
+        rowOfPixel = new int[height];
+        rowEdges = new boolean[height];
+        mapPixels(rowOfPixel, rowEdges, cellHeight, 0, topology.getHeight(), hasGrid);
+
+        evenColumnOfPixel = new int[width];
+        evenColumnEdges = new boolean[width];
+        mapPixels(evenColumnOfPixel, evenColumnEdges, cellWidth, 0, topology.getWidth(), hasGrid);
+
+        oddColumnOfPixel = isHex? new int[width] : evenColumnOfPixel;
+        oddColumnEdges = isHex? new boolean[width] : evenColumnEdges;
+        if (isHex) mapPixels(oddColumnOfPixel, oddColumnEdges, cellWidth, cellWidth / 2, topology.getWidth(), hasGrid);
+    }
+
+    /**
+     * A method to compute which grid column (or row) each pixel column (or row) belongs to.
+     *
+     * @param cellOfPixel The array to store the column of each pixel in, or -1 for pixels outside the grid
+     * @param edges The array to mark the first pixel of each column in
+     * @param cellSize Size of a cell in pixels
+     * @param offset Offset of the first cell in pixels
+     * @param cells Number of columns
+     * @param hasGrid Whether to mark the edges
+     */
+    private static void mapPixels(int[] cellOfPixel, boolean[] edges, double cellSize, double offset, int cells,
+                                  boolean hasGrid) {
+        int previous = -1;
+
+        for (int pixel = 0; pixel < cellOfPixel.length; pixel++) {
+            int cell = (int) Math.floor((pixel + 0.5 - offset) / cellSize);
+            if (cell < 0 || cell >= cells) cell = -1;
+
+            cellOfPixel[pixel] = cell;
+            edges[pixel] = hasGrid && cell >= 0 && cell != previous;
+            previous = cell;
+        }
+    }
+
+    /**
+     * A method to draw a board in the background and show it on the image once it is drawn.
+     * Must be called on the FX thread.
+     *
+     * @param snapshot The snapshot of the board to draw, or null to draw an unstarted board
+     * @param minesVisible Whether to show the mines or not
+     */
+    void render(BoardSnapshot snapshot, boolean minesVisible) {
+        pendingSnapshot = snapshot;
+        pendingMinesVisible = minesVisible;
+        hasPendingFrame = true;
+
+        if (!drawing) drawPendingFrame();
+    }
+
+    /**
+     * A method to draw the latest requested frame into the back buffer, then copy it to the image on the FX thread.
+     */
+    private void drawPendingFrame() {
+        BoardSnapshot snapshot = pendingSnapshot;
+        boolean minesVisible = pendingMinesVisible;
+
+        pendingSnapshot = null;
+        hasPendingFrame = false;
+        drawing = true;
+
+        CompletableFuture.runAsync(() -> {
+            long startTime = RENDER_TIMER.start();
+            draw(snapshot, minesVisible);
+            RENDER_TIMER.stop(startTime);
+        }).whenComplete((unused, e) -> Platform.runLater(() -> {
+            if (e == null) {
+                pixelBuffer.updateBuffer(buffer -> {
+                    System.arraycopy(backPixels, 0, pixels, 0, pixels.length);
+                    return null;
+                });
+            } else {
+                System.err.println("Could not draw the board: " + e.getMessage());
+            }
+
+            drawing = false;
+            if (hasPendingFrame) drawPendingFrame();
+        }));
+    }
+
+    /**
+     * A method to draw a board into the back buffer, one tile per task.
+     *
+     * @param snapshot The snapshot of the board to draw, or null to draw an unstarted board
+     * @param minesVisible Whether to show the mines or not
+     */
+    void draw(BoardSnapshot snapshot, boolean minesVisible) {
+        this.snapshot = snapshot;
+        this.minesVisible = minesVisible;
+        clickedMineIndex = -1;
+
+        if (snapshot != null) {
+            Point2D clickedMineCell = snapshot.getClickedMineCell();
+            if (clickedMineCell != null) {
+                clickedMineIndex = topology.index((int) clickedMineCell.getX() - 1, (int) clickedMineCell.getY() - 1);
+            }
+        }
+
+        int tilesAcross = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesDown = (height + TILE_SIZE - 1) / TILE_SIZE;
+
+        ForkJoinPool.commonPool().invoke(new TileTask(0, tilesAcross * tilesDown, tilesAcross));
+        this.snapshot = null;
+    }
+
+    /**
+     * A method to draw a single tile.
+     *
+     * @param tileX Tile column
+     * @param tileY Tile row
+     */
+    private void drawTile(int tileX, int tileY) {
+        int left = tileX * TILE_SIZE;
+        int right = Math.min(left + TILE_SIZE, width);
+        int top = tileY * TILE_SIZE;
+        int bottom = Math.min(top + TILE_SIZE, height);
+
+        for (int py = top; py < bottom; py++) {
+            int row = rowOfPixel[py];
+            int offset = py * width;
+
+            if (row < 0) {
+                for (int px = left; px < right; px++) backPixels[offset + px] = BACKGROUND_COLOR;
+                continue;
+            }
+
+            boolean isOdd = row % 2 == 1;
+            int[] columnOfPixel = isOdd? oddColumnOfPixel : evenColumnOfPixel;
+            boolean[] columnEdges = isOdd? oddColumnEdges : evenColumnEdges;
+            int rowStart = row * topology.getWidth();
+            boolean isRowEdge = rowEdges[py];
+
+            for (int px = left; px < right; px++) {
+                int col = columnOfPixel[px];
+
+                if (col < 0) {
+                    backPixels[offset + px] = BACKGROUND_COLOR;
+                } else if (isRowEdge || columnEdges[px]) {
+                    backPixels[offset + px] = GRID_COLOR;
+                } else {
+                    backPixels[offset + px] = getColor(rowStart + col);
+                }
+            }
+        }
+    }
+
+    /**
+     * A method to get the color of a cell.
+     *
+     * @param index The index of the cell
+     * @return The color as a premultiplied ARGB int
+     */
+    private int getColor(int index) {
+        if (snapshot == null) return unopenedColor;
+        if (index == clickedMineIndex) return CLICKED_MINE_COLOR;
+
+        int cell = snapshot.getCellAt(index);
+
+        if (cell >= Cell.OPENED) {
+            int adjacentMines = Cell.getAdjacentMines(cell);
+            return (adjacentMines > 0)? numberColors[(adjacentMines - 1) % numberColors.length] : openedColor;
+        }
+
+        boolean isFlagged = (cell & Cell.FLAG) > 0;
+        boolean isMine = (cell & Cell.MINE) > 0;
+
+        if (minesVisible && isMine && !isFlagged) return MINE_COLOR;
+        if (minesVisible && isFlagged && !isMine) return INCORRECT_FLAG_COLOR;
+        return isFlagged? FLAG_COLOR : unopenedColor;
+    }
+
+    WritableImage getImage() {
+        return image;
+    }
+
+    Topology getTopology() {
+        return topology;
+    }
+
+    private static int argb(Color color) {
+        return 0xFF000000
+            | (int) Math.round(color.getRed() * 255) << 16
+            | (int) Math.round(color.getGreen() * 255) << 8
+            | (int) Math.round(color.getBlue() * 255);
+    }
+
+    /**
+     * A task that draws a range of tiles, splitting it in half until only one tile is left.
+     */
+    private class TileTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int start, end, tilesAcross;
+
+        TileTask(int start, int end, int tilesAcross) {
+            this.start = start;
+            this.end = end;
+            this.tilesAcross = tilesAcross;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                drawTile(start % tilesAcross, start / tilesAcross);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new TileTask(start, middle, tilesAcross), new TileTask(middle, end, tilesAcross));
+        }
+    }
+}
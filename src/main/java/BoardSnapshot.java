@@ -0,0 +1,168 @@
+import javafx.geometry.Point2D;
+
+/**
+ * A point-in-time copy of a {@link Board}, taken with {@link Board#snapshot()}, which other threads can read while
+ * the game thread keeps playing.<br><br>
+ * The cells are stored in chunks of {@link #CHUNK_SIZE} cells which are never modified once the snapshot is taken.
+ * A new snapshot only copies the chunks changed since the previous one, and shares the others with it,
+ * so taking a snapshot costs little more than the cells changed since the last one.
+ *
+ * @author Evan Razzaque
+ */
+public class BoardSnapshot {
+    static final int CHUNK_SHIFT = 10;
+    /** The number of cells per chunk */
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Topology topology;
+    private final int[][] chunks;
+    private final long version;
+    private final int mines, flags, cellsDug;
+    private final boolean gameLost, gameWon;
+    private final Point2D clickedMineCell;
+
+    BoardSnapshot(Topology topology, int[][] chunks, long version, int mines, int flags, int cellsDug,
+                  boolean gameLost, boolean gameWon, Point2D clickedMineCell) {
+        this.topology = topology;
+        this.chunks = chunks;
+        this.version = version;
+        this.mines = mines;
+        this.flags = flags;
+        this.cellsDug = cellsDug;
+        this.gameLost = gameLost;
+        this.gameWon = gameWon;
+        this.clickedMineCell = clickedMineCell;
+    }
+
+    /**
+     * Gets the chunks of the snapshot, which must not be modified.
+     *
+     * @return The chunks
+     */
+    int[][] getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Gets the number of chunks needed for the cells of a topology.
+     *
+     * @param topology The topology
+     * @return Number of chunks
+     */
+    static int getChunkCount(Topology topology) {
+        return (topology.getCellCount() + CHUNK_MASK) >> CHUNK_SHIFT;
+    }
+
+    /**
+     * Gets the state of the cell (x, y) when the snapshot was taken.
+     *
+     * @param x Cell column (1-based, like the board)
+     * @param y Cell row (1-based, like the board)
+     * @return The state of the cell
+     */
+    public int getCell(int x, int y) {
+        return getCellAt((y - 1) * topology.getWidth() + x - 1);
+    }
+
+    /**
+     * Gets the state of a cell when the snapshot was taken.
+     *
+     * @param index The index of the cell (see {@link Topology#index(int, int)})
+     * @return The state of the cell
+     */
+    public int getCellAt(int index) {
+        return chunks[index >> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * A method to copy the states of a row of cells into an array.
+     *
+     * @param y Cell row (1-based, like the board)
+     * @param cells The array to copy the states into
+     * @param offset The position of the first cell in the array
+     * @param minesVisible Whether to copy the mines of unopened cells, or to copy the cells as the player sees them
+     * @see Board#copyRow(int, int[], int, boolean)
+     */
+    public void copyRow(int y, int[] cells, int offset, boolean minesVisible) {
+        int width = topology.getWidth();
+
+        if (y < 1 || y > topology.getHeight()) {
+            throw new IndexOutOfBoundsException("Row " + y + " is outside the board");
+        }
+
+        if (offset < 0 || offset + width > cells.length) {
+            throw new IndexOutOfBoundsException("Row of " + width + " cells at " + offset
+                + " does not fit in " + cells.length + " cells");
+        }
+
+        int index = (y - 1) * width;
+        int end = index + width;
+
+        // A row may span several chunks, so it is copied one chunk at a time
+        while (index < end) {
+            int[] chunk = chunks[index >> CHUNK_SHIFT];
+            int start = index & CHUNK_MASK;
+            int length = Math.min(end - index, CHUNK_SIZE - start);
+
+            if (minesVisible) {
+                System.arraycopy(chunk, start, cells, offset, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    cells[offset + i] = Cell.visibleState(chunk[start + i]);
+                }
+            }
+
+            index += length;
+            offset += length;
+        }
+    }
+
+    /**
+     * Gets the number of the snapshot, counting from 1 for the first snapshot of the board.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    public int getMines() {
+        return mines;
+    }
+
+    /**
+     * Gets the number of flags that were available.
+     *
+     * @return Number of flags
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getCellsDug() {
+        return cellsDug;
+    }
+
+    public boolean isGameLost() {
+        return gameLost;
+    }
+
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    /**
+     * Gets the coordinate of the clicked mine.
+     *
+     * @return Coordinate of the clicked mine, or null if no mine was clicked
+     */
+    public Point2D getClickedMineCell() {
+        return clickedMineCell;
+    }
+}
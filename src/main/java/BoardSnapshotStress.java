@@ -0,0 +1,131 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A stress test for {@link BoardSnapshot}. One thread plays random moves on a board and takes a snapshot after
+ * every move, while readers check the latest snapshot on their own threads: every snapshot must be
+ * consistent with itself (its opened and flagged cells must match its counts) and newer than the last one read.<br><br>
+ * Once the game ends, the last snapshot must be an exact copy of the board.
+ *
+ * @author Evan Razzaque
+ */
+public class BoardSnapshotStress {
+    private static volatile BoardSnapshot latest;
+    private static volatile boolean done;
+
+    /**
+     * A method to run the stress test.
+     *
+     * @param args [cols] [rows] [mines] [moves] [readers]
+     * @throws InterruptedException If interrupted while waiting for the readers
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int cols = (args.length > 0)? Integer.parseInt(args[0]) : 1000;
+        int rows = (args.length > 1)? Integer.parseInt(args[1]) : 1000;
+        int mines = (args.length > 2)? Integer.parseInt(args[2]) : cols * rows / 6;
+        int moves = (args.length > 3)? Integer.parseInt(args[3]) : 200_000;
+        int readerCount = (args.length > 4)? Integer.parseInt(args[4]) : 2;
+
+        Board board = new Board(cols, rows, mines);
+        board.start(cols / 2, rows / 2);
+        latest = board.snapshot();
+
+        Reader[] readers = new Reader[readerCount];
+
+        for (int i = 0; i < readerCount; i++) {
+            readers[i] = new Reader();
+            readers[i].thread.start();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long snapshotTime = 0;
+        int move;
+
+        for (move = 0; move < moves && !board.isGameWon(); move++) {
+            int x = random.nextInt(cols) + 1;
+            int y = random.nextInt(rows) + 1;
+            int cell = board.getCell(x, y);
+
+            // Mines are flagged rather than dug, so the game is never lost
+            if ((cell & Cell.OPENED) > 0) {
+                board.chord(x, y);
+            } else if ((cell & Cell.MINE) > 0) {
+                if ((cell & Cell.FLAG) == 0) board.toggleFlag(x, y);
+            } else {
+                board.dig(x, y);
+            }
+
+            long start = System.nanoTime();
+            latest = board.snapshot();
+            snapshotTime += System.nanoTime() - start;
+        }
+
+        done = true;
+        boolean consistent = true;
+
+        System.out.printf("Took %,d snapshots of %,d cells in %.2f microseconds each on average%n",
+            move, cols * rows, snapshotTime / 1e3 / move);
+
+        for (int i = 0; i < readerCount; i++) {
+            Reader reader = readers[i];
+            reader.thread.join();
+
+            System.out.printf("Reader %d: checked %,d snapshots, %,d inconsistent%n", i, reader.checked, reader.errors);
+            if (reader.errors > 0) consistent = false;
+        }
+
+        BoardSnapshot last = latest;
+
+        for (int index = 0; index < cols * rows; index++) {
+            if (last.getCellAt(index) != board.getCellAt(index)) {
+                System.out.println("The last snapshot does not match the board");
+                consistent = false;
+                break;
+            }
+        }
+
+        if (!consistent) System.exit(1);
+    }
+
+    /**
+     * A reader that checks the latest snapshot whenever a new one is taken.
+     */
+    private static class Reader implements Runnable {
+        final Thread thread = new Thread(this);
+        long checked;
+        long errors;
+
+        @Override
+        public void run() {
+            long lastVersion = 0;
+
+            while (!done) {
+                BoardSnapshot snapshot = latest;
+
+                if (snapshot.getVersion() == lastVersion) {
+                    Thread.yield();
+                    continue;
+                }
+
+                if (snapshot.getVersion() < lastVersion || !isConsistent(snapshot)) errors++;
+
+                lastVersion = snapshot.getVersion();
+                checked++;
+            }
+        }
+
+        boolean isConsistent(BoardSnapshot snapshot) {
+            int cellCount = snapshot.getTopology().getCellCount();
+            int opened = 0;
+            int flagged = 0;
+
+            for (int index = 0; index < cellCount; index++) {
+                int cell = snapshot.getCellAt(index);
+
+                if ((cell & Cell.OPENED) > 0) opened++;
+                else if ((cell & Cell.FLAG) > 0) flagged++;
+            }
+
+            return opened == snapshot.getCellsDug() && flagged == snapshot.getMines() - snapshot.getFlags();
+        }
+    }
+}
@@ -19,7 +19,7 @@ public class Cell {
     static final int MINE_FLAGGED_CHORDED = MINE | FLAG_CHORDED;
 
     // Accounts for the exponent of OPENED when computing adjacent mines
-    static final int MINE_OFFSET = (int) (Math.log(OPENED) / Math.log(2));
+    static final int MINE_OFFSET = Integer.numberOfTrailingZeros(OPENED);
 
     /**
      * A method to get the number of adjacent mines from a cell state.
@@ -29,18 +29,27 @@ public class Cell {
      */
     static int getAdjacentMines(int cell) {
         if (cell == Cell.OPENED) return 0;
-        return ((cell & Cell.OPENED) == 0)? -1 : (int) (Math.log(cell - Cell.OPENED) / Math.log(2)) - MINE_OFFSET;
+        return ((cell & Cell.OPENED) == 0)? -1 : Integer.numberOfTrailingZeros(cell - Cell.OPENED) - MINE_OFFSET;
     }
 
     /**
-     * A method to store the number of adjacent mines at a cell.
+     * A method to get the state of an opened cell.
      *
-     * @param x Cell column
-     * @param y Cell row
-     * @param mines Number of mines
-     * @param board The board containing the cell
+     * @param mines Number of adjacent mines
+     * @return The cell state
      */
-    static void storeAdjacentMineCount(int x, int y, int mines, int[][] board) {
-        board[y][x] += (int) Math.pow(2, MINE_OFFSET + mines);
+    static int openedState(int mines) {
+        return (mines == 0)? Cell.OPENED : Cell.OPENED + (1 << (MINE_OFFSET + mines));
+    }
+
+    /**
+     * A method to get the state of a cell as the player sees it, which hides the mine of an unopened cell.
+     * Flags are kept, so a flagged mine looks like any other flag.
+     *
+     * @param cell Cell state
+     * @return The visible cell state
+     */
+    static int visibleState(int cell) {
+        return cell & ~Cell.MINE;
     }
 }
@@ -0,0 +1,355 @@
+import javafx.geometry.Point2D;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A Minesweeper board that many players (or bot threads) can dig, flag and chord at the same time.<br><br>
+ * It uses the same cell states and 1-based coordinates as {@link Board}, but every cell is a single word which is
+ * only ever changed with compare-and-set, so no locks are needed:
+ * <ul>
+ *   <li>A cell is opened by the one thread that wins the CAS from an unopened state,
+ *   so flood fills started by different threads can meet anywhere on the board without opening a cell twice</li>
+ *   <li>The flag and dug cell counters are atomic, and a flag is only placed once one was taken from the counter</li>
+ *   <li>The adjacent mine counts are computed once when the mines are placed and never change afterwards</li>
+ * </ul>
+ * Flood fills use an explicit stack rather than recursion, so they work on boards of any size.
+ *
+ * @author Evan Razzaque
+ * @see Board
+ */
+public class ConcurrentBoard {
+    private final AtomicIntegerArray board;
+    private final int cols, rows, width;
+    private final int cellCount, mines;
+    private final int[] neighbourOffsets;
+
+    // Written once by start, then only read
+    private byte[] adjacentMines;
+    private volatile boolean started;
+    private final AtomicBoolean starting = new AtomicBoolean();
+
+    private final AtomicInteger cellsDug = new AtomicInteger();
+    private final AtomicInteger flags;
+    private final AtomicInteger clickedMineCell = new AtomicInteger(-1);
+    private volatile boolean gameLost;
+    private volatile boolean gameWon;
+
+    private final ThreadLocal<IntStack> stacks = ThreadLocal.withInitial(IntStack::new);
+
+    /**
+     * A constructor to set up the board.
+     * The board is padded with a border of {@link Cell#BORDER} cells, so cells are addressed using 1-based indexing
+     * like {@link Board}, and the neighbours of a cell are always at the same offsets.
+     *
+     * @param cols Number of columns
+     * @param rows Number of rows
+     * @param mines Number of mines
+     */
+    public ConcurrentBoard(int cols, int rows, int mines) {
+        this.cols = cols;
+        this.rows = rows;
+        width = cols + 2;
+
+        board = new AtomicIntegerArray(width * (rows + 2));
+        padBoard();
+
+        cellCount = rows * cols;
+        this.mines = mines;
+        flags = new AtomicInteger(mines);
+
+        neighbourOffsets = new int[] {-width - 1, -width, -width + 1, -1, 1, width - 1, width, width + 1};
+    }
+
+    /**
+     * A method to set the state of the cells outside the board to {@link Cell#BORDER}.
+     */
+    private void padBoard() {
+        for (int x = 0; x < width; x++) {
+            board.set(x, Cell.BORDER);
+            board.set(index(x, rows + 1), Cell.BORDER);
+        }
+
+        for (int y = 1; y <= rows; y++) {
+            board.set(index(0, y), Cell.BORDER);
+            board.set(index(cols + 1, y), Cell.BORDER);
+        }
+    }
+
+    /**
+     * A method to start the game around cell (x, y). Only the first call places the mines,
+     * and every move must happen after it has returned.
+     *
+     * @param x Cell column (0-based, like {@link Board#start(int, int)})
+     * @param y Cell row (0-based)
+     */
+    public void start(int x, int y) {
+        start(x, y, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * A method to start the game around cell (x, y). The same seed and cell give the same mines as a square
+     * {@link Board} started with {@link Board#start(int, int, long)}.
+     *
+     * @param x Cell column (0-based)
+     * @param y Cell row (0-based)
+     * @param seed The seed of the mine placement
+     */
+    public void start(int x, int y, long seed) {
+        if (!starting.compareAndSet(false, true)) return;
+
+        placeMines(index(x + 1, y + 1), seed);
+        started = true;
+    }
+
+    /**
+     * A method to place the mines on the board and count the adjacent mines of every cell.
+     *
+     * @param origin The index of the cell that is excluded from having a mine
+     * @param seed The seed of the mine placement
+     */
+    private void placeMines(int origin, long seed) {
+        byte[] counts = new byte[board.length()];
+
+        new SplittableRandom(seed)
+            .ints(0, cellCount)
+            .map(value -> index(value % cols + 1, value / cols + 1))
+            .distinct()
+            .filter(index -> index != origin)
+            .limit(mines).forEach(index -> {
+                board.set(index, Cell.MINE);
+
+                for (int offset : neighbourOffsets) {
+                    counts[index + offset]++;
+                }
+            });
+
+        adjacentMines = counts;
+    }
+
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * A method to dig the cell (x, y). If the cell has no adjacent mines,
+     * the surrounding cells are dug until every path reaches a cell with adjacent mines.
+     *
+     * @param x Cell column
+     * @param y Cell row
+     */
+    public void dig(int x, int y) {
+        checkStarted();
+        dig(index(x, y));
+    }
+
+    private void dig(int index) {
+        if (gameLost) return;
+
+        int cell = board.get(index);
+        if ((cell & Cell.FLAG) > 0 || cell >= Cell.OPENED) return;
+
+        if (cell == Cell.MINE) {
+            clickedMineCell.compareAndSet(-1, index);
+            gameLost = true;
+            return;
+        }
+
+        IntStack stack = stacks.get();
+        stack.push(index);
+
+        int opened = 0;
+
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            if (!open(current)) continue;
+
+            opened++;
+            if (adjacentMines[current] > 0) continue;
+
+            for (int offset : neighbourOffsets) {
+                int neighbour = board.get(current + offset);
+
+                // Like Board, flood fills dig through flags that have not been used for chording
+                if (neighbour == Cell.EMPTY || neighbour == Cell.FLAG) stack.push(current + offset);
+            }
+        }
+
+        if (opened > 0 && cellsDug.addAndGet(opened) == cellCount - mines) gameWon = true;
+    }
+
+    /**
+     * A method to open a cell, unless another thread opened it first.
+     *
+     * @param index The index of the cell
+     * @return true if this thread opened the cell, false otherwise
+     */
+    private boolean open(int index) {
+        int openedState = Cell.openedState(adjacentMines[index]);
+
+        while (true) {
+            int cell = board.get(index);
+            if (cell != Cell.EMPTY && cell != Cell.FLAG) return false;
+
+            if (board.compareAndSet(index, cell, openedState)) {
+                if (cell == Cell.FLAG) flags.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * A method to add or remove a flag on a cell.
+     *
+     * @param x Cell column
+     * @param y Cell row
+     */
+    public void toggleFlag(int x, int y) {
+        checkStarted();
+        if (gameLost) return;
+
+        int index = index(x, y);
+
+        while (true) {
+            int cell = board.get(index);
+            if (cell >= Cell.OPENED) return;
+
+            if ((cell & Cell.FLAG) == 0) {
+                if (!takeFlag()) return;
+                if (board.compareAndSet(index, cell, cell + Cell.FLAG)) return;
+
+                flags.incrementAndGet();
+            } else if (board.compareAndSet(index, cell, cell & ~Cell.FLAG_CHORDED)) {
+                flags.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A method to take a flag from the flag counter.
+     *
+     * @return true if a flag was available, false otherwise
+     */
+    private boolean takeFlag() {
+        while (true) {
+            int available = flags.get();
+            if (available <= 0) return false;
+            if (flags.compareAndSet(available, available - 1)) return true;
+        }
+    }
+
+    /**
+     * A method to perform chording around an opened cell with the corresponding amount of flags.
+     *
+     * @param x Cell column
+     * @param y Cell row
+     */
+    public void chord(int x, int y) {
+        checkStarted();
+
+        int index = index(x, y);
+        int adjacentMines = Cell.getAdjacentMines(board.get(index));
+        if (adjacentMines <= 0) return;
+
+        int flagCount = 0;
+
+        for (int offset : neighbourOffsets) {
+            if (markChordFlag(index + offset)) flagCount++;
+        }
+
+        if (flagCount != adjacentMines) return;
+
+        for (int offset : neighbourOffsets) {
+            dig(index + offset);
+        }
+    }
+
+    /**
+     * A method to mark the flag of a cell as used for chording, so flood fills no longer dig through it.
+     *
+     * @param index The index of the cell
+     * @return true if the cell is flagged, false otherwise
+     */
+    private boolean markChordFlag(int index) {
+        while (true) {
+            int cell = board.get(index);
+            if ((cell & Cell.FLAG) == 0) return false;
+            if (board.compareAndSet(index, cell, cell | Cell.CHORD_FLAG)) return true;
+        }
+    }
+
+    private void checkStarted() {
+        if (!started) throw new IllegalStateException("The game has not been started");
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getFlags() {
+        return flags.get();
+    }
+
+    public int getCellsDug() {
+        return cellsDug.get();
+    }
+
+    /**
+     * Gets the state of the cell (x, y).
+     *
+     * @param x Cell column
+     * @param y Cell row
+     * @return The state of the cell
+     */
+    public int getCell(int x, int y) {
+        return board.get(index(x, y));
+    }
+
+    /**
+     * Gets the coordinate of the clicked mine.
+     *
+     * @return Coordinate of the first mine that was dug, or null if none was dug
+     */
+    public Point2D getClickedMineCell() {
+        int index = clickedMineCell.get();
+        return (index < 0)? null : new Point2D(index % width, index / width);
+    }
+
+    public boolean isGameLost() {
+        return gameLost;
+    }
+
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    /**
+     * A growable stack of ints, used for flood fills without boxing.
+     */
+    private static class IntStack {
+        private int[] values = new int[64];
+        private int size;
+
+        void push(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
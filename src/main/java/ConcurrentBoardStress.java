@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A stress test for {@link ConcurrentBoard}. For each thread count, a fresh board is played by that many threads
+ * at once, each digging, flagging and chording random cells. Only mines are flagged (and mines are never dug),
+ * so chording is always safe and the game keeps going.
+ * The throughput of each run is printed, and the board is checked for consistency afterwards.
+ *
+ * @author Evan Razzaque
+ */
+public class ConcurrentBoardStress {
+    /**
+     * A method to run the stress test.
+     *
+     * @param args [cols] [rows] [mines] [moves per thread] [max threads]
+     * @throws InterruptedException If interrupted while waiting for the threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int cols = (args.length > 0)? Integer.parseInt(args[0]) : 2000;
+        int rows = (args.length > 1)? Integer.parseInt(args[1]) : 2000;
+        int mines = (args.length > 2)? Integer.parseInt(args[2]) : cols * rows / 5;
+        int moves = (args.length > 3)? Integer.parseInt(args[3]) : 1_000_000;
+        int maxThreads = (args.length > 4)? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors() * 2;
+
+        boolean consistent = true;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ConcurrentBoard board = new ConcurrentBoard(cols, rows, mines);
+            board.start(cols / 2, rows / 2);
+
+            long elapsed = run(board, threads, moves);
+            double movesPerSecond = (double) threads * moves / elapsed * 1e9;
+            String error = verify(board, cols, rows, mines);
+
+            System.out.printf("%2d threads: %,.0f moves/s, %,d cells dug, %d flags left%s%n",
+                threads, movesPerSecond, board.getCellsDug(), board.getFlags(), (error == null)? "" : ", " + error);
+
+            if (error != null) consistent = false;
+        }
+
+        if (!consistent) System.exit(1);
+    }
+
+    /**
+     * A method to play random moves on a board from several threads at once.
+     *
+     * @param board The board to play on
+     * @param threads Number of threads
+     * @param moves Number of moves per thread
+     * @return The time it took for every thread to finish, in nanoseconds
+     * @throws InterruptedException If interrupted while waiting for the threads
+     */
+    private static long run(ConcurrentBoard board, int threads, int moves) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                ready.countDown();
+
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int move = 0; move < moves; move++) {
+                    int x = random.nextInt(board.getCols()) + 1;
+                    int y = random.nextInt(board.getRows()) + 1;
+                    int cell = board.getCell(x, y);
+
+                    if ((cell & Cell.OPENED) > 0) {
+                        board.chord(x, y);
+                    } else if ((cell & Cell.MINE) > 0) {
+                        board.toggleFlag(x, y);
+                    } else {
+                        board.dig(x, y);
+                    }
+                }
+            });
+
+            workers.add(worker);
+            worker.start();
+        }
+
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * A method to check that the counters of a board match its cells.
+     *
+     * @param board The board to check
+     * @param cols Number of columns
+     * @param rows Number of rows
+     * @param mines Number of mines
+     * @return A description of the first inconsistency found, or null if the board is consistent
+     */
+    private static String verify(ConcurrentBoard board, int cols, int rows, int mines) {
+        int opened = 0;
+        int flagged = 0;
+
+        for (int y = 1; y <= rows; y++) {
+            for (int x = 1; x <= cols; x++) {
+                int cell = board.getCell(x, y);
+
+                if ((cell & Cell.OPENED) > 0) opened++;
+                if ((cell & Cell.FLAG) > 0) flagged++;
+                if (cell >= Cell.OPENED && (cell & Cell.MINE) > 0) return "mine opened at (" + x + ", " + y + ")";
+            }
+        }
+
+        if (board.isGameLost()) return "a mine was dug";
+        if (opened != board.getCellsDug()) return opened + " cells opened but " + board.getCellsDug() + " counted";
+        if (flagged + board.getFlags() != mines) return flagged + " flags placed with " + board.getFlags() + " left";
+
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JDK Flight Recorder events of the game engine and renderer.
+ * They are recorded when the game runs with {@code -XX:StartFlightRecording}, and cost next to nothing otherwise.
+ *
+ * @author Evan Razzaque
+ */
+public class EngineEvents {
+    private EngineEvents() {}
+
+    @Name("minesweeper.MinePlacement")
+    @Label("Mine Placement")
+    @Category("Minesweeper")
+    @StackTrace(false)
+    static class MinePlacement extends Event {
+        @Label("Columns")
+        int cols;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Mines")
+        int mines;
+    }
+
+    @Name("minesweeper.Dig")
+    @Label("Dig")
+    @Category("Minesweeper")
+    @Description("Digging a cell, including the flood fill around cells without adjacent mines")
+    @StackTrace(false)
+    static class Dig extends Event {
+        @Label("Column")
+        int x;
+
+        @Label("Row")
+        int y;
+
+        @Label("Cells Opened")
+        int cellsOpened;
+
+        @Label("Depth")
+        @Description("Deepest nesting of the flood fill")
+        int depth;
+    }
+
+    @Name("minesweeper.Chord")
+    @Label("Chord")
+    @Category("Minesweeper")
+    @StackTrace(false)
+    static class Chord extends Event {
+        @Label("Column")
+        int x;
+
+        @Label("Row")
+        int y;
+
+        @Label("Cells Opened")
+        int cellsOpened;
+
+        @Label("Performed")
+        @Description("Whether the number of adjacent flags matched the number of adjacent mines")
+        boolean performed;
+    }
+
+    @Name("minesweeper.Render")
+    @Label("Render Pass")
+    @Category("Minesweeper")
+    @StackTrace(false)
+    static class Render extends Event {
+        @Label("Cells Drawn")
+        int cellsDrawn;
+    }
+}
@@ -1,12 +1,13 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Point2D;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.Pane;
@@ -18,7 +19,11 @@ import javafx.stage.Stage;
 import nodes.ButtonGroup;
 import nodes.LabeledTextField;
 
-import java.net.URL;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Java implementation of Minesweeper.<br><br>
@@ -28,23 +33,79 @@ import java.net.URL;
  * @author Evan Razzaque
  */
 public class Game extends Application {
+    // Cells smaller than this (in pixels) are drawn by the BoardRasterizer, since their text would be unreadable
+    private static final int MIN_DRAWN_CELL_SIZE = 8;
+    private static final int MINIMAP_SIZE = 200;
+
     /**
      * A method to redraw the board.
      *
      * @param minesVisible whether to show the mines or not
      */
     private void updateBoard(boolean minesVisible) {
+        EngineEvents.Render event = new EngineEvents.Render();
+        long startTime = Timers.RENDER.start();
+        event.begin();
+
+        // The rasterizer reads the board through a snapshot, since it draws off the FX thread
+        BoardSnapshot snapshot = (rasterizer == null || game == null)? null : game.snapshot();
+        drawBoard(snapshot, minesVisible);
+        updateMinimap(minesVisible);
+
+        Timers.RENDER.stop(startTime);
+
+        if (event.shouldCommit()) {
+            event.cellsDrawn = (game == null)? 0 : topology.getCellCount();
+            event.commit();
+        }
+
+        if (metricsLabel != null) metricsLabel.setText(Metrics.getReport());
+    }
+
+    /**
+     * A method to update the minimap with the cells changed since it was last updated.
+     *
+     * @param minesVisible whether to show the mines or not
+     */
+    private void updateMinimap(boolean minesVisible) {
+        if (game != null) {
+            minimap.update(game);
+            game.clearChanges();
+        }
+
+        minimap.refresh(minesVisible);
+    }
+
+    /**
+     * A method to draw every cell of the board, followed by the grid.
+     *
+     * @param snapshot The snapshot of the board for the rasterizer, or null if there is no rasterizer or no game
+     * @param minesVisible whether to show the mines or not
+     */
+    private void drawBoard(BoardSnapshot snapshot, boolean minesVisible) {
+        if (rasterizer != null) {
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            rasterizer.render(snapshot, minesVisible);
+
+            if (hint != null) drawHint(hint);
+            return;
+        }
+
         gc.setFill(unopenedCellColor);
         gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
 
         if (game == null) {
-            drawGrid(cols, rows);
+            drawGrid(topology.getWidth(), topology.getHeight());
             return;
         }
 
-        for (int y = 0; y < rows; y++) {
-            for (int x = 0; x < cols; x++) {
-                drawCell(x, y, minesVisible);
+        if (rowCells == null || rowCells.length != topology.getWidth()) rowCells = new int[topology.getWidth()];
+
+        for (int y = 0; y < topology.getHeight(); y++) {
+            game.copyRow(y + 1, rowCells, 0, minesVisible);
+
+            for (int x = 0; x < topology.getWidth(); x++) {
+                drawCell(x, y, rowCells[x], minesVisible);
             }
         }
 
@@ -59,7 +120,21 @@ public class Game extends Application {
             drawMine(col - 1, row - 1, false);
         }
 
-        drawGrid(cols, rows);
+        drawGrid(topology.getWidth(), topology.getHeight());
+        if (hint != null) drawHint(hint);
+    }
+
+    /**
+     * A method to outline the cell of a hint, in green if it is safe or in red if it is a mine.
+     *
+     * @param hint The hint
+     */
+    private void drawHint(Assistant.Hint hint) {
+        gc.save();
+        gc.setLineWidth(4);
+        gc.setStroke(hint.isMine()? Color.RED : Color.LIME);
+        gc.strokeRect(getCellLeft(hint.x() - 1, hint.y() - 1), (hint.y() - 1) * cellSize, cellSize, cellSize);
+        gc.restore();
     }
 
     /**
@@ -67,11 +142,10 @@ public class Game extends Application {
      *
      * @param x Grid column
      * @param y Grid row
+     * @param cell The state of the cell
      * @param minesVisible Whether to show the mines or not
      */
-    private void drawCell(int x, int y, boolean minesVisible) {
-        int cell = game.getCell(x + 1, y + 1);
-
+    private void drawCell(int x, int y, int cell, boolean minesVisible) {
         switch (cell) {
             case Cell.EMPTY:
                 break;
@@ -103,13 +177,62 @@ public class Game extends Application {
         gc.setStroke(Color.BLACK);
         gc.strokeRect(0, 0, canvas.getWidth(), canvas.getHeight());
 
-        for (int i = 0; i < cols; i++) {
-            gc.strokeLine(i * cellSize, 0, i * cellSize, canvas.getHeight());
+        if (topology.getKind() == Topology.Kind.HEX) {
+            // Odd rows are shifted by half a cell, so each row has its own vertical lines
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x <= cols; x++) {
+                    double left = getCellLeft(x, y);
+                    gc.strokeLine(left, y * cellSize, left, (y + 1) * cellSize);
+                }
+            }
+        } else {
+            for (int i = 0; i < cols; i++) {
+                gc.strokeLine(i * cellSize, 0, i * cellSize, canvas.getHeight());
+            }
         }
 
         for (int i = 0; i < rows; i++) {
             gc.strokeLine(0, i * cellSize, canvas.getWidth(), i * cellSize);
         }
+
+        // Separates the layers of a layered board
+        if (topology.getLayerWidth() < cols) {
+            gc.save();
+            gc.setLineWidth(6);
+
+            for (int i = topology.getLayerWidth(); i < cols; i += topology.getLayerWidth()) {
+                gc.strokeLine(i * cellSize, 0, i * cellSize, canvas.getHeight());
+            }
+
+            gc.restore();
+        }
+    }
+
+    /**
+     * A method to get the left edge of a cell, since the odd rows of hexagonal boards are shifted by half a cell.
+     *
+     * @param x Grid column
+     * @param y Grid row
+     * @return The x coordinate of the left edge of the cell on the canvas
+     */
+    private double getCellLeft(int x, int y) {
+        if (topology.getKind() == Topology.Kind.HEX && y % 2 == 1) return (x + 0.5) * cellSize;
+        return x * cellSize;
+    }
+
+    /**
+     * A method to get the cell at a point on the canvas.
+     *
+     * @param x Canvas x coordinate
+     * @param y Canvas y coordinate
+     * @return The grid column and row of the cell, or null if the point is not on a cell
+     */
+    private Point getCellAt(double x, double y) {
+        int row = (int) (y / cellSize);
+        int col = (int) Math.floor((x - getCellLeft(0, row)) / cellSize);
+
+        if (col < 0 || col >= topology.getWidth() || row < 0 || row >= topology.getHeight()) return null;
+        return new Point(col, row);
     }
 
     /**
@@ -121,7 +244,7 @@ public class Game extends Application {
      */
     private void fillCellBackground(int x, int y, Color color) {
         gc.setFill(color);
-        gc.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+        gc.fillRect(getCellLeft(x, y), y * cellSize, cellSize, cellSize);
     }
 
     /**
@@ -137,8 +260,8 @@ public class Game extends Application {
         int adjacentMines = Cell.getAdjacentMines(cell);
         if (adjacentMines <= 0) return;
 
-        gc.setFill(colors[adjacentMines - 1]);
-        gc.fillText(adjacentMines + "", (x + 0.5) * cellSize, (y + 0.5) * cellSize);
+        gc.setFill(colors[(adjacentMines - 1) % colors.length]);
+        gc.fillText(adjacentMines + "", getCellLeft(x, y) + 0.5 * cellSize, (y + 0.5) * cellSize);
     }
 
     /**
@@ -149,7 +272,7 @@ public class Game extends Application {
      */
     private void drawFlag(int x, int y) {
         gc.setFill(Color.RED);
-        gc.fillText("`", (x + 0.5) * cellSize, (y + 0.5) * cellSize);
+        gc.fillText("`", getCellLeft(x, y) + 0.5 * cellSize, (y + 0.5) * cellSize);
     }
 
     /**
@@ -161,14 +284,15 @@ public class Game extends Application {
      */
     private void drawMine(int x, int y, boolean isIncorrect) {
         gc.setFill(Color.BLACK);
-        gc.fillText("*", (x + 0.5) * cellSize, (y + 0.5) * cellSize);
+        double left = getCellLeft(x, y);
+        gc.fillText("*", left + 0.5 * cellSize, (y + 0.5) * cellSize);
 
         if (!isIncorrect) return;
 
         // Draws red x over flags without mines (when the mines are revealed)
         gc.setStroke(Color.RED);
-        gc.strokeLine(x * cellSize, y * cellSize, (x + 1) * cellSize, (y + 1) * cellSize);
-        gc.strokeLine(x * cellSize, (y + 1) * cellSize, (x + 1) * cellSize, (y) * cellSize);
+        gc.strokeLine(left, y * cellSize, left + cellSize, (y + 1) * cellSize);
+        gc.strokeLine(left, (y + 1) * cellSize, left + cellSize, (y) * cellSize);
     }
 
     /**
@@ -184,31 +308,83 @@ public class Game extends Application {
      * A method to update the canvas size in respect to the board dimensions.
      */
     private void updateCanvasSize() {
-        if (cols > rows) cellSize = (double) canvasWidth / cols;
-        else cellSize = (double) canvasHeight / rows;
+        // Odd rows of hexagonal boards stick out by half a cell
+        double gridCols = topology.getWidth() + ((topology.getKind() == Topology.Kind.HEX)? 0.5 : 0);
+        int gridRows = topology.getHeight();
+
+        if (gridCols > gridRows) cellSize = canvasWidth / gridCols;
+        else cellSize = (double) canvasHeight / gridRows;
+
+        canvas.setWidth(cellSize * gridCols);
+        canvas.setHeight(cellSize * gridRows);
+
+        if (cellSize < MIN_DRAWN_CELL_SIZE) {
+            if (rasterizer == null || rasterizer.getTopology() != topology) {
+                rasterizer = new BoardRasterizer(topology, (int) Math.ceil(canvas.getWidth()),
+                    (int) Math.ceil(canvas.getHeight()), unopenedCellColor, openedCellColor, colors);
+            }
+
+            boardImageView.setImage(rasterizer.getImage());
+        } else {
+            rasterizer = null;
+            boardImageView.setImage(null);
+        }
 
-        canvas.setWidth(cellSize * cols);
-        canvas.setHeight(cellSize * rows);
+        if (minimap == null || minimap.getTopology() != topology) {
+            minimap = new Minimap(topology, MINIMAP_SIZE, unopenedCellColor, openedCellColor);
+            minimapView.setImage(minimap.getImage());
+        }
     }
 
     /**
      * A method to start a game at the clicked cell.
      *
-     * @param x Cell column
-     * @param y Cell row
+     * @param x Grid column
+     * @param y Grid row
      * @see Board#start(int, int)
      */
     private void startGame(int x, int y) {
-        game = new Board(cols, rows, mineCount);
+        game = (layoutPath == null)? null : loadLayout();
 
         gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
         gc.setFont(Font.font(gc.getFont().getFamily(), FontWeight.BOLD, cellSize / 1.5));
 
-        game.start((int) (x / cellSize), (int) (y / cellSize));
+        if (game == null) {
+            game = new Board(topology, mineCount);
+            game.start(x, y);
+        }
+
+        assistant = new Assistant(game);
+        gameStartTime = System.nanoTime();
+        clicks = 0;
+
         updateFlagCountDisplay(game.getFlags());
         updateBoard(showMines);
     }
 
+    /**
+     * A method to load the layout given with {@code -layout}, for a new game on a known board.
+     *
+     * @return The board of the layout, or null if it could not be loaded or the board settings were changed since
+     */
+    private Board loadLayout() {
+        try {
+            Board layout = LayoutIO.read(layoutPath, topologyKind);
+            Topology layoutTopology = layout.getTopology();
+
+            // The cached topology may have been evicted and built again, so the sizes are compared instead
+            boolean sameBoard = layoutTopology.getKind() == topology.getKind()
+                && layoutTopology.getLayerWidth() == topology.getLayerWidth()
+                && layoutTopology.getHeight() == topology.getHeight();
+
+            return (sameBoard && layout.getMines() == mineCount)? layout : null;
+        } catch (IOException e) {
+            new Alert(Alert.AlertType.ERROR, e.getMessage()).showAndWait();
+            layoutPath = null;
+            return null;
+        }
+    }
+
     /**
      * A method to end the game instance.
      */
@@ -216,15 +392,101 @@ public class Game extends Application {
         updateBoard(game.isGameLost() || showMines);
         canvas.setDisable(true);
 
+        long duration = (System.nanoTime() - gameStartTime) / 1000;
+        GameStatsStore.Stats configStats = recordGame(duration);
+
         if (game.isGameWon()) {
             setResetButtonImage("smiley_cool");
-            new Alert(Alert.AlertType.INFORMATION, "You win!").showAndWait();
+
+            String message = String.format("You win in %.2f seconds!", duration / 1e6);
+
+            if (configStats != null) {
+                message += String.format("%nBest time: %.2f seconds%nWins: %d of %d (%.0f%% of the last %d games)",
+                    configStats.getBestTime() / 1e6, configStats.getWins(), configStats.getGames(),
+                    configStats.getRecentWinRate() * 100, GameStatsStore.ROLLING_WINDOW);
+            }
+
+            new Alert(Alert.AlertType.INFORMATION, message).showAndWait();
         } else {
             setResetButtonImage("smiley_dead");
         }
 
         game.endGame();
         game = null;
+        assistant = null;
+    }
+
+    /**
+     * A method to record the game that just ended in the statistics store.
+     *
+     * @param duration The time since the first click, in microseconds
+     * @return The statistics of the board configuration, or null if there is no store
+     */
+    private GameStatsStore.Stats recordGame(long duration) {
+        if (getStatsStore() == null) return null;
+
+        GameStatsStore.Config config = GameStatsStore.Config.of(game);
+
+        try {
+            stats.record(new GameStatsStore.Result(System.currentTimeMillis(), game.getSeed(), config,
+                game.isGameWon(), duration, clicks, game.get3BV()));
+        } catch (IOException e) {
+            new Alert(Alert.AlertType.ERROR, "Could not record the game: " + e.getMessage()).showAndWait();
+            closeStats();
+            return null;
+        }
+
+        return stats.getStats(config);
+    }
+
+    /**
+     * A method to close the statistics store, after which games are no longer recorded.
+     */
+    private void closeStats() {
+        if (getStatsStore() == null) return;
+
+        try {
+            stats.close();
+        } catch (IOException e) {
+            System.err.println("Could not close the game statistics: " + e.getMessage());
+        }
+
+        stats = null;
+    }
+
+    /**
+     * A method to update the game after the player (or the assistant) made a move.
+     * In auto assist mode, every obvious mine is flagged and every obvious safe cell is dug first.
+     */
+    private void finishMove() {
+        hint = null;
+        if (autoAssistBox.isSelected()) assistant.assist();
+
+        updateFlagCountDisplay(game.getFlags());
+
+        if (game.isGameLost() || game.isGameWon()) {
+            isGameRunning = false;
+            endGame();
+            return;
+        }
+
+        updateBoard(showMines);
+    }
+
+    /**
+     * A method to show a hint on the board.
+     */
+    private void showHint() {
+        if (game == null) return;
+
+        hint = assistant.findHint();
+
+        if (hint == null) {
+            new Alert(Alert.AlertType.INFORMATION, "No cell can be proven safe or a mine").showAndWait();
+            return;
+        }
+
+        updateBoard(showMines);
     }
 
     /**
@@ -232,9 +494,35 @@ public class Game extends Application {
      * @param name Image name without extension
      */
     private void setResetButtonImage(String name) {
-        resetButton.setGraphic(new ImageView(
-            new Image(resourcePath + "/images/" + name + ".png", 34, 34, true, false)
-        ));
+        long startTime = Timers.IMAGE.start();
+
+        resetButtonImage.setImage(Resources.getImage(name, 34));
+
+        Timers.IMAGE.stop(startTime);
+    }
+
+    /**
+     * A method to record that a startup phase was reached, which prints the startup report
+     * or exits the application when requested.
+     *
+     * @param phase The name of the phase
+     * @see StartupTimer
+     */
+    private void markStartup(String phase) {
+        if (StartupTimer.isMarked(phase)) return;
+        StartupTimer.mark(phase);
+
+        List<String> args = getParameters().getRaw();
+        boolean exitAfterStartup = args.contains("-exitAfterStartup");
+        boolean startupComplete = StartupTimer.isMarked(StartupTimer.FIRST_FRAME)
+            && StartupTimer.isMarked(StartupTimer.FONTS_LOADED);
+
+        if (args.contains("-startupReport") && (phase.equals(StartupTimer.FIRST_CLICK)
+                || (exitAfterStartup && startupComplete))) {
+            System.err.print(StartupTimer.getReport());
+        }
+
+        if (exitAfterStartup && startupComplete) Platform.exit();
     }
 
     /**
@@ -256,8 +544,14 @@ public class Game extends Application {
     Pane root;
     Canvas canvas;
     GraphicsContext gc;
+    ImageView boardImageView;
+    BoardRasterizer rasterizer;
+    ImageView minimapView;
+    Minimap minimap;
     Label flagCountLabel;
     Button resetButton;
+    ImageView resetButtonImage;
+    Label metricsLabel;
 
     final int canvasWidth = 720;
     final int canvasHeight = 720;
@@ -265,22 +559,35 @@ public class Game extends Application {
     VBox settingsContainer;
     LabeledTextField colsField, rowsField, minesField;
     ButtonGroup difficultyButtons;
+    VBox assistContainer;
+    Button hintButton;
+    CheckBox autoAssistBox;
     Color openedCellColor = Color.DARKGRAY;
     Color unopenedCellColor = Color.GRAY;
     Color[] colors = new Color[] {Color.BLUE, Color.GREEN, Color.RED, Color.PURPLE, Color.DARKRED, Color.CYAN,
             Color.BLACK, Color.GRAY};
-    URL resourcePath = getClass().getResource("main/java/resources");
 
     Board game;
+    int[] rowCells;
+    Assistant assistant;
+    Assistant.Hint hint;
 
     int cols = 16;
     int rows = 16;
+    Topology.Kind topologyKind = Topology.Kind.SQUARE;
+    Topology topology;
+    Path layoutPath;
     double cellSize;
     int mineCount = 40;
 
     boolean isGameRunning = true;
     boolean showMines;
 
+    GameStatsStore stats;
+    CompletableFuture<GameStatsStore> statsLoader;
+    long gameStartTime;
+    int clicks;
+
     /**
      * A method to configure the application and run the game.
      *
@@ -291,14 +598,75 @@ public class Game extends Application {
      */
     @Override
     public void start(Stage stage) {
+        StartupTimer.mark(StartupTimer.APPLICATION_STARTED);
+
+        // The window is shown empty, and the rest of the scene is built once it is on screen
+        root = new Pane();
+        Scene scene = new Scene(root, 1200, 1000);
+        stage.setScene(scene);
+        stage.setResizable(false);
+        stage.setTitle("Minesweeper");
+
+        stage.show();
+        markStartup(StartupTimer.WINDOW_SHOWN);
+
+        openStats();
+        Platform.runLater(() -> buildScene(scene));
+
+        // Queued after the scene is built, since runLater runs in order
+        Resources.loadFontsAsync().thenRun(() -> Platform.runLater(() -> {
+            NodeDesigner.configureFonts(canvas, flagCountLabel);
+            updateBoard(showMines);
+            markStartup(StartupTimer.FONTS_LOADED);
+        }));
+    }
+
+    /**
+     * A method to build the scene graph and draw the board, once the window is shown.
+     *
+     * @param scene The scene of the window
+     */
+    private void buildScene(Scene scene) {
         showMines = getParameters().getRaw().contains("-showMines");
+
+        if (getParameters().getRaw().contains("-torus")) topologyKind = Topology.Kind.TORUS;
+        else if (getParameters().getRaw().contains("-hex")) topologyKind = Topology.Kind.HEX;
+        else if (getParameters().getRaw().contains("-layered")) topologyKind = Topology.Kind.LAYERED;
+
+        int layoutArg = getParameters().getRaw().indexOf("-layout");
+        if (layoutArg >= 0 && layoutArg + 1 < getParameters().getRaw().size()) {
+            layoutPath = Path.of(getParameters().getRaw().get(layoutArg + 1));
+
+            // The board settings start out as the ones of the layout
+            try {
+                Board layout = LayoutIO.read(layoutPath, topologyKind);
+                topologyKind = layout.getTopology().getKind();
+                cols = layout.getTopology().getLayerWidth();
+                rows = layout.getTopology().getHeight();
+                mineCount = layout.getMines();
+            } catch (IOException e) {
+                new Alert(Alert.AlertType.ERROR, e.getMessage()).showAndWait();
+                layoutPath = null;
+            }
+        }
+
+        if (Metrics.ENABLED) metricsLabel = new Label();
         canvas = new Canvas(canvasWidth, canvasHeight);
         gc = canvas.getGraphicsContext2D();
 
-        cellSize = (int) (canvas.getWidth() / cols);
+        // Shows the board under the canvas when it is drawn by the rasterizer
+        boardImageView = new ImageView();
+        boardImageView.setMouseTransparent(true);
+        boardImageView.layoutXProperty().bind(canvas.layoutXProperty());
+        boardImageView.layoutYProperty().bind(canvas.layoutYProperty());
+        minimapView = new ImageView();
+
+        topology = Topology.of(topologyKind, cols, rows);
+        updateCanvasSize();
         flagCountLabel = new Label("0" + mineCount);
 
-        resetButton = new Button("");
+        resetButtonImage = new ImageView();
+        resetButton = new Button("", resetButtonImage);
         setResetButtonImage("smiley");
 
         colsField = new LabeledTextField(new VBox(), "Columns", cols);
@@ -308,22 +676,35 @@ public class Game extends Application {
         settingsContainer = new VBox(5, colsField, rowsField, minesField);
         difficultyButtons = new ButtonGroup(new VBox(5), "Beginner", "Intermediate", "Expert");
 
-        root = new Pane(canvas, resetButton, flagCountLabel, settingsContainer, difficultyButtons);
+        hintButton = new Button("Hint");
+        autoAssistBox = new CheckBox("Auto assist");
+        assistContainer = new VBox(5, hintButton, autoAssistBox);
 
-        Scene scene = new Scene(root, 1200, 1000);
-        stage.setScene(scene);
-        stage.setResizable(false);
-        stage.setTitle("Minesweeper");
+        root.getChildren().addAll(boardImageView, canvas, resetButton, flagCountLabel, settingsContainer,
+            difficultyButtons, assistContainer, minimapView);
 
         NodeDesigner.configure(canvas, resetButton, flagCountLabel, settingsContainer, difficultyButtons);
+        NodeDesigner.configureAssist(assistContainer, hintButton);
+        NodeDesigner.configureMinimap(minimapView, MINIMAP_SIZE);
+
+        if (metricsLabel != null) {
+            root.getChildren().add(metricsLabel);
+            NodeDesigner.configureMetricsOverlay(metricsLabel);
+        }
 
         canvas.setOnMouseClicked(event -> {
+            markStartup(StartupTimer.FIRST_CLICK);
+
+            Point cell = getCellAt(event.getX(), event.getY());
+            if (cell == null) return;
+
             if (game == null) {
-                startGame((int) event.getX(), (int) event.getY());
+                startGame(cell.x(), cell.y());
             }
 
-            int x = (int) (event.getX() / cellSize) + 1;
-            int y = (int) (event.getY() / cellSize) + 1;
+            int x = cell.x() + 1;
+            int y = cell.y() + 1;
+            clicks++;
 
             if (event.getButton() == MouseButton.PRIMARY) {
                 game.chord(x, y);
@@ -332,15 +713,7 @@ public class Game extends Application {
                 game.toggleFlag(x, y);
             }
 
-            updateFlagCountDisplay(game.getFlags());
-
-            if (game.isGameLost() || game.isGameWon()) {
-                isGameRunning = false;
-                endGame();
-                return;
-            }
-
-            updateBoard(showMines);
+            finishMove();
         });
 
         canvas.setOnMousePressed(event -> {
@@ -358,6 +731,7 @@ public class Game extends Application {
             updateFlagCountDisplay(mineCount);
             canvas.setDisable(false);
             game = null;
+            minimap.reset();
 
             int newCols, newRows, newMineCount;
 
@@ -372,7 +746,7 @@ public class Game extends Application {
                     errorMessage = "There must be at least one column";
                 } else if (newRows <= 0) {
                     errorMessage = "There must be at least one row";
-                } else if (newMineCount >= newCols * newRows) {
+                } else if (newMineCount >= Topology.cellCount(topologyKind, newCols, newRows)) {
                     errorMessage = "There must be less mines than cells";
                 } else if (mineCount < 0) {
                     errorMessage = "Mine count must be positive";
@@ -385,6 +759,7 @@ public class Game extends Application {
 
                 cols = newCols;
                 rows = newRows;
+                topology = Topology.of(topologyKind, cols, rows);
                 updateCanvasSize();
 
                 mineCount = newMineCount;
@@ -398,21 +773,98 @@ public class Game extends Application {
             updateBoard(showMines);
         });
 
+        hintButton.setOnAction(event -> showHint());
+
+        autoAssistBox.setOnAction(event -> {
+            if (autoAssistBox.isSelected() && game != null) finishMove();
+        });
+
         difficultyButtons.get("Beginner").setOnAction(event -> configureGame(8, 8, 10));
         difficultyButtons.get("Intermediate").setOnAction(event -> configureGame(16, 16, 40));
         difficultyButtons.get("Expert").setOnAction(event -> configureGame(30, 16, 99));
 
         updateBoard(showMines);
-        stage.show();
+
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                markStartup(StartupTimer.FIRST_FRAME);
+            }
+        });
+    }
+
+    /**
+     * A method to start opening the statistics store in the background, since it may have to rebuild its index.
+     * Unless {@code -noStats} is given, the store is in the directory given with {@code -statsDir},
+     * or the default one.
+     */
+    private void openStats() {
+        if (getParameters().getRaw().contains("-noStats")) return;
+
+        int statsArg = getParameters().getRaw().indexOf("-statsDir");
+        Path statsDirectory = (statsArg >= 0 && statsArg + 1 < getParameters().getRaw().size())
+            ? Path.of(getParameters().getRaw().get(statsArg + 1)) : GameStatsStore.getDefaultDirectory();
+
+        statsLoader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new GameStatsStore(statsDirectory);
+            } catch (IOException e) {
+                System.err.println("Game statistics are disabled: " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Gets the statistics store, waiting for it to be opened if it is still being opened.
+     *
+     * @return The store, or null if games are not recorded
+     */
+    private GameStatsStore getStatsStore() {
+        if (statsLoader != null) {
+            stats = statsLoader.join();
+            statsLoader = null;
+        }
+
+        return stats;
+    }
+
+    @Override
+    public void stop() {
+        closeStats();
     }
 
     /**
      * The method to launch the application.
      *
      * @param args Command line args to change one or more options for the game. See {@link Game#start(Stage)} for
-     *             more details.
+     *             more details. {@code -metrics} enables the {@link Metrics} registry, which is shown in an overlay
+     *             and printed on exit. {@code -startupReport} prints the {@link StartupTimer} report on the first
+     *             click, and {@code -exitAfterStartup} exits once the first frame is shown and the fonts are loaded.
      */
     public static void main(String[] args) {
+        StartupTimer.mark(StartupTimer.MAIN);
+        enableMetrics(args);
         launch(args);
     }
+
+    /**
+     * A method to enable the {@link Metrics} registry when {@code -metrics} is given.
+     * It must be called before the Metrics class is loaded, since {@link Metrics#ENABLED} is read only once.
+     *
+     * @param args Command line args
+     */
+    static void enableMetrics(String[] args) {
+        if (Arrays.asList(args).contains("-metrics")) System.setProperty(Metrics.PROPERTY, "true");
+    }
+
+    /**
+     * The timers of the game. They are kept out of the Game class so that loading it (which the JavaFX launcher
+     * does before {@link #main(String[])} runs) does not load the Metrics class before {@code -metrics} is read.
+     */
+    private static class Timers {
+        static final Metrics.Timer RENDER = Metrics.timer("game.updateBoard");
+        static final Metrics.Timer IMAGE = Metrics.timer("game.loadImage");
+    }
 }
\ No newline at end of file
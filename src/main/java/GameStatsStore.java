@@ -0,0 +1,567 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * A store of every finished game, from players, bots and simulations alike, with statistics per board
+ * configuration.<br><br>
+ * A store is a directory with two files:
+ * <ul>
+ *   <li>{@value #LOG_FILE}, an append-only log of {@value #RECORD_SIZE} byte records (see {@link Result}),
+ *   so game N is found by its offset alone</li>
+ *   <li>{@value #INDEX_FILE}, the statistics of every configuration (games, wins, best time, recent wins and
+ *   a histogram of winning times), along with the length of the log they cover</li>
+ * </ul>
+ * Opening a store reads the index and only the records appended after it was written, so startup does not depend
+ * on the number of games recorded. The index is rewritten every {@value #INDEX_INTERVAL} records and when the store
+ * is closed, and rebuilt from the whole log if it is missing or does not match the log.<br><br>
+ * A store must only be used by one thread, and opened by one process at a time.
+ *
+ * @author Evan Razzaque
+ */
+public class GameStatsStore implements Closeable {
+    static final String LOG_FILE = "games.log";
+    static final String INDEX_FILE = "games.idx";
+    static final int RECORD_SIZE = 48;
+
+    /** The number of most recent games the rolling win rate is computed over */
+    public static final int ROLLING_WINDOW = 100;
+
+    private static final int INDEX_MAGIC = 0x4D535349;
+    private static final int INDEX_VERSION = 1;
+
+    // The most records read again when the store is opened, since the index is rewritten after this many records
+    private static final int INDEX_INTERVAL = 1 << 16;
+
+    private static final int READ_BUFFER_RECORDS = 1 << 12;
+
+    /**
+     * A board configuration, which games are grouped by.
+     *
+     * @param kind The kind of topology
+     * @param cols Number of columns (of each layer, for layered boards)
+     * @param rows Number of rows
+     * @param mines Number of mines
+     */
+    public record Config(Topology.Kind kind, int cols, int rows, int mines) {
+        /**
+         * A method to get the configuration of a board.
+         *
+         * @param board The board
+         * @return The configuration
+         */
+        public static Config of(Board board) {
+            Topology topology = board.getTopology();
+            return new Config(topology.getKind(), topology.getLayerWidth(), topology.getHeight(), board.getMines());
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + cols + "x" + rows + " " + mines;
+        }
+    }
+
+    /**
+     * A finished game.
+     *
+     * @param time When the game ended, in milliseconds since the epoch
+     * @param seed The seed of the mines (see {@link Board#getSeed()})
+     * @param config The board configuration
+     * @param won Whether the game was won
+     * @param duration The time from the first click to the end of the game, in microseconds
+     * @param clicks Number of clicks (or moves, for bots)
+     * @param boardValue The 3BV of the board (see {@link Board#get3BV()})
+     */
+    public record Result(long time, long seed, Config config, boolean won, long duration, int clicks,
+                         int boardValue) {}
+
+    /**
+     * The statistics of the games of a configuration.
+     */
+    public static class Stats {
+        private long games, wins;
+        private long bestTime = -1;
+        private LatencyHistogram winTimes = new LatencyHistogram();
+
+        // The outcomes of the last games, one bit per game in a ring of ROLLING_WINDOW bits
+        private final long[] recentWins = new long[(ROLLING_WINDOW + 63) / 64];
+        private int recentCount, recentPosition;
+
+        /**
+         * A method to add a game to the statistics.
+         *
+         * @param result The game
+         */
+        void add(Result result) {
+            games++;
+
+            if (result.won()) {
+                wins++;
+                winTimes.record(result.duration());
+                if (bestTime < 0 || result.duration() < bestTime) bestTime = result.duration();
+
+                recentWins[recentPosition / 64] |= 1L << (recentPosition % 64);
+            } else {
+                recentWins[recentPosition / 64] &= ~(1L << (recentPosition % 64));
+            }
+
+            recentPosition = (recentPosition + 1) % ROLLING_WINDOW;
+            recentCount = Math.min(recentCount + 1, ROLLING_WINDOW);
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(games);
+            out.writeLong(wins);
+            out.writeLong(bestTime);
+            for (long bits : recentWins) out.writeLong(bits);
+            out.writeInt(recentCount);
+            out.writeInt(recentPosition);
+            winTimes.writeTo(out);
+        }
+
+        private static Stats readFrom(DataInputStream in) throws IOException {
+            Stats stats = new Stats();
+            stats.games = in.readLong();
+            stats.wins = in.readLong();
+            stats.bestTime = in.readLong();
+            for (int i = 0; i < stats.recentWins.length; i++) stats.recentWins[i] = in.readLong();
+            stats.recentCount = in.readInt();
+            stats.recentPosition = in.readInt();
+            stats.winTimes = LatencyHistogram.readFrom(in);
+
+            if (stats.recentPosition < 0 || stats.recentPosition >= ROLLING_WINDOW) {
+                throw new IOException("Invalid recent game position " + stats.recentPosition);
+            }
+
+            return stats;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public double getWinRate() {
+            return (games == 0)? 0 : (double) wins / games;
+        }
+
+        /**
+         * Gets the win rate of the last {@value #ROLLING_WINDOW} games.
+         *
+         * @return The win rate, from 0 to 1
+         */
+        public double getRecentWinRate() {
+            if (recentCount == 0) return 0;
+
+            int recent = 0;
+            for (long bits : recentWins) recent += Long.bitCount(bits);
+
+            return (double) recent / recentCount;
+        }
+
+        /**
+         * Gets the time of the fastest win.
+         *
+         * @return The time in microseconds, or -1 if no game was won
+         */
+        public long getBestTime() {
+            return bestTime;
+        }
+
+        /**
+         * Gets the time below which the given percentage of wins were made, within about 6%.
+         *
+         * @param percentile The percentile, from 0 to 100
+         * @return The time in microseconds, or 0 if no game was won
+         * @see LatencyHistogram#getPercentile(double)
+         */
+        public long getTimePercentile(double percentile) {
+            return winTimes.getPercentile(percentile);
+        }
+    }
+
+    private final Path directory;
+    private final FileChannel log;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final Map<Config, Stats> stats = new LinkedHashMap<>();
+
+    // Records appended since the index was last written
+    private long unindexed;
+
+    /**
+     * A constructor to open a store, creating it if it does not exist.
+     *
+     * @param directory The directory of the store
+     * @throws IOException If the store could not be opened
+     */
+    public GameStatsStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+
+        try {
+            long length = log.size() - log.size() % RECORD_SIZE;
+
+            // Drops the end of a record that was cut short
+            if (length < log.size()) log.truncate(length);
+
+            long indexed = readIndex(length);
+            scan(indexed, length);
+
+            unindexed = (length - indexed) / RECORD_SIZE;
+            log.position(length);
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the directory of the store used by the game.
+     *
+     * @return The directory
+     */
+    public static Path getDefaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".minesweeper");
+    }
+
+    /**
+     * A method to read the statistics from the index.
+     *
+     * @param logLength The length of the log
+     * @return The length of the log the index covers, or 0 if the index is missing or invalid
+     */
+    private long readIndex(long logLength) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(directory.resolve(INDEX_FILE))))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) return 0;
+
+            long indexed = in.readLong();
+            int configs = in.readInt();
+
+            // The log was replaced or truncated since the index was written
+            if (indexed > logLength || indexed % RECORD_SIZE != 0) return 0;
+
+            for (int i = 0; i < configs; i++) {
+                Config config = new Config(readKind(in.readByte()), in.readInt(), in.readInt(), in.readInt());
+                stats.put(config, Stats.readFrom(in));
+            }
+
+            return indexed;
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Rebuilding the game statistics index: " + e);
+            stats.clear();
+            return 0;
+        }
+    }
+
+    /**
+     * A method to write the index, replacing the old one only once it is complete.
+     *
+     * @throws IOException If the index could not be written
+     */
+    private void writeIndex() throws IOException {
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(log.size());
+            out.writeInt(stats.size());
+
+            for (Map.Entry<Config, Stats> entry : stats.entrySet()) {
+                Config config = entry.getKey();
+
+                out.writeByte(config.kind().ordinal());
+                out.writeInt(config.cols());
+                out.writeInt(config.rows());
+                out.writeInt(config.mines());
+                entry.getValue().writeTo(out);
+            }
+        }
+
+        Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        unindexed = 0;
+    }
+
+    /**
+     * A method to add the records of part of the log to the statistics.
+     *
+     * @param from The offset of the first record
+     * @param to The end of the last record
+     * @throws IOException If the log could not be read
+     */
+    private void scan(long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long position = from;
+
+        while (position < to) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            readFully(buffer, position);
+            buffer.flip();
+
+            while (buffer.remaining() >= RECORD_SIZE) {
+                Result result = decode(buffer, position);
+                stats.computeIfAbsent(result.config(), config -> new Stats()).add(result);
+                position += RECORD_SIZE;
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = log.read(buffer, position);
+            if (read < 0) throw new IOException("Unexpected end of the game log");
+
+            position += read;
+        }
+    }
+
+    /**
+     * A method to record a finished game.
+     *
+     * @param result The game
+     * @throws IOException If the game could not be written, in which case nothing of it is left in the log
+     */
+    public void record(Result result) throws IOException {
+        Config config = result.config();
+
+        record.clear();
+        record.putLong(result.time());
+        record.putLong(result.seed());
+        record.putLong(result.duration());
+        record.put((byte) config.kind().ordinal());
+        record.put((byte) (result.won()? 1 : 0));
+        record.putShort((short) 0);
+        record.putInt(config.cols());
+        record.putInt(config.rows());
+        record.putInt(config.mines());
+        record.putInt(result.clicks());
+        record.putInt(result.boardValue());
+        record.flip();
+
+        long end = log.position();
+
+        try {
+            while (record.hasRemaining()) log.write(record);
+        } catch (IOException e) {
+            // Drops the part of the record that was written, so the log still ends on a record boundary
+            try {
+                log.truncate(end);
+                log.position(end);
+            } catch (IOException truncateError) {
+                e.addSuppressed(truncateError);
+            }
+
+            throw e;
+        }
+
+        stats.computeIfAbsent(config, key -> new Stats()).add(result);
+        if (++unindexed >= INDEX_INTERVAL) writeIndex();
+    }
+
+    /**
+     * A method to read a recorded game.
+     *
+     * @param n The number of the game, from 0 to {@link #getGameCount()} - 1
+     * @return The game
+     * @throws IOException If the game could not be read
+     */
+    public Result read(long n) throws IOException {
+        if (n < 0 || n >= getGameCount()) throw new IndexOutOfBoundsException("Game " + n + " of " + getGameCount());
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(buffer, n * RECORD_SIZE);
+
+        return decode(buffer.flip(), n * RECORD_SIZE);
+    }
+
+    /**
+     * A method to decode the record at the position of a buffer.
+     *
+     * @param buffer The buffer, which is advanced past the record
+     * @param offset The offset of the record in the log, for error messages
+     * @return The game
+     * @throws IOException If the record is invalid
+     */
+    private static Result decode(ByteBuffer buffer, long offset) throws IOException {
+        long time = buffer.getLong();
+        long seed = buffer.getLong();
+        long duration = buffer.getLong();
+        byte kind = buffer.get();
+        boolean won = buffer.get() != 0;
+        buffer.getShort();
+
+        try {
+            Config config = new Config(readKind(kind), buffer.getInt(), buffer.getInt(), buffer.getInt());
+            return new Result(time, seed, config, won, duration, buffer.getInt(), buffer.getInt());
+        } catch (IOException e) {
+            throw new IOException("Invalid game record at " + offset + ": " + e.getMessage());
+        }
+    }
+
+    private static Topology.Kind readKind(int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= Topology.Kind.values().length) {
+            throw new IOException("Unknown topology " + ordinal);
+        }
+
+        return Topology.Kind.values()[ordinal];
+    }
+
+    /**
+     * Gets the statistics of a configuration.
+     *
+     * @param config The configuration
+     * @return The statistics, or null if no game of the configuration was recorded
+     */
+    public Stats getStats(Config config) {
+        return stats.get(config);
+    }
+
+    /**
+     * Gets every configuration with recorded games, in the order they were first played.
+     *
+     * @return The configurations
+     */
+    public Set<Config> getConfigs() {
+        return Collections.unmodifiableSet(stats.keySet());
+    }
+
+    /**
+     * Gets the number of recorded games.
+     *
+     * @return Number of games
+     * @throws IOException If the size of the log could not be read
+     */
+    public long getGameCount() throws IOException {
+        return log.size() / RECORD_SIZE;
+    }
+
+    /**
+     * A method to write the index and close the log.
+     *
+     * @throws IOException If the index could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (unindexed > 0) writeIndex();
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * A method to simulate games with the {@link Assistant} (guessing when it is stuck), or to print the statistics
+     * of a store.
+     *
+     * @param args {@code simulate <directory> <games> [cols] [rows] [mines]} or {@code report [directory]}
+     * @throws IOException If the store could not be used
+     */
+    public static void main(String[] args) throws IOException {
+        String command = (args.length > 0)? args[0] : "report";
+        Path directory = (args.length > 1)? Path.of(args[1]) : getDefaultDirectory();
+
+        switch (command) {
+            case "simulate" -> {
+                if (args.length < 3) {
+                    System.err.println("Usage: simulate <directory> <games> [cols] [rows] [mines]");
+                    return;
+                }
+
+                int games = Integer.parseInt(args[2]);
+                int cols = (args.length > 3)? Integer.parseInt(args[3]) : 30;
+                int rows = (args.length > 4)? Integer.parseInt(args[4]) : 16;
+                int mines = (args.length > 5)? Integer.parseInt(args[5]) : 99;
+
+                simulate(directory, games, cols, rows, mines);
+                report(directory);
+            }
+            case "report" -> report(directory);
+            default -> System.err.println("Unknown command " + command + ", expected simulate or report");
+        }
+    }
+
+    private static void simulate(Path directory, int games, int cols, int rows, int mines) throws IOException {
+        Topology topology = Topology.of(Topology.Kind.SQUARE, cols, rows);
+        SplittableRandom random = new SplittableRandom();
+        long startTime = System.nanoTime();
+
+        try (GameStatsStore store = new GameStatsStore(directory)) {
+            for (int i = 0; i < games; i++) {
+                long gameStart = System.nanoTime();
+                Board board = new Board(topology, mines);
+                board.start(cols / 2, rows / 2, random.nextLong());
+                board.dig(cols / 2 + 1, rows / 2 + 1);
+
+                Assistant assistant = new Assistant(board);
+                int clicks = 1;
+
+                while (true) {
+                    clicks += assistant.assist();
+                    if (board.isGameLost() || board.isGameWon()) break;
+
+                    // Guesses an unopened cell that is not flagged
+                    int x, y;
+                    do {
+                        x = random.nextInt(cols) + 1;
+                        y = random.nextInt(rows) + 1;
+                    } while (board.getCell(x, y) >= Cell.OPENED || (board.getCell(x, y) & Cell.FLAG) > 0);
+
+                    board.dig(x, y);
+                    clicks++;
+                }
+
+                long duration = (System.nanoTime() - gameStart) / 1000;
+                store.record(new Result(System.currentTimeMillis(), board.getSeed(), Config.of(board),
+                    board.isGameWon(), duration, clicks, board.get3BV()));
+            }
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("Simulated and recorded %,d games in %.2f s%n", games, seconds);
+    }
+
+    private static void report(Path directory) throws IOException {
+        long startTime = System.nanoTime();
+
+        try (GameStatsStore store = new GameStatsStore(directory)) {
+            System.out.printf("Opened a store of %,d games in %.1f ms%n", store.getGameCount(),
+                (System.nanoTime() - startTime) / 1e6);
+
+            for (Config config : store.getConfigs()) {
+                Stats stats = store.getStats(config);
+
+                System.out.printf("%s: %,d games, %.1f%% won (%.0f%% of the last %d), best %.2f ms, "
+                        + "median %.2f ms, 90th percentile %.2f ms%n",
+                    config, stats.getGames(), stats.getWinRate() * 100, stats.getRecentWinRate() * 100,
+                    ROLLING_WINDOW, stats.getBestTime() / 1e3, stats.getTimePercentile(50) / 1e3,
+                    stats.getTimePercentile(90) / 1e3);
+            }
+        }
+    }
+}
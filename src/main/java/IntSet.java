@@ -0,0 +1,88 @@
+/**
+ * A set of ints from 0 (inclusive) to a fixed bound (exclusive), with constant time add, remove and contains.
+ * Elements are stored densely, so iterating over the set only touches its elements, not the whole range.<br><br>
+ * Removing an element moves the last element into its place, so a set can be iterated from the last index down
+ * to 0 while removing the current element.
+ *
+ * @author Evan Razzaque
+ */
+class IntSet {
+    private final int[] elements;
+    // The index of each value in elements plus one, or 0 if the value is not in the set
+    private final int[] positions;
+    private int size;
+
+    /**
+     * A constructor to create an empty set.
+     *
+     * @param bound The bound of the values in the set
+     */
+    IntSet(int bound) {
+        elements = new int[bound];
+        positions = new int[bound];
+    }
+
+    /**
+     * A method to add a value to the set.
+     *
+     * @param value The value
+     * @return true if the value was added, false if it was already in the set
+     */
+    boolean add(int value) {
+        if (positions[value] != 0) return false;
+
+        elements[size++] = value;
+        positions[value] = size;
+        return true;
+    }
+
+    /**
+     * A method to remove a value from the set.
+     *
+     * @param value The value
+     * @return true if the value was removed, false if it was not in the set
+     */
+    boolean remove(int value) {
+        int position = positions[value] - 1;
+        if (position < 0) return false;
+
+        int last = elements[--size];
+        elements[position] = last;
+        positions[last] = position + 1;
+        positions[value] = 0;
+        return true;
+    }
+
+    boolean contains(int value) {
+        return positions[value] != 0;
+    }
+
+    /**
+     * Gets the element at an index, in no particular order.
+     *
+     * @param index The index, from 0 to {@link #size()} (exclusive)
+     * @return The element
+     */
+    int get(int index) {
+        return elements[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * A method to remove every element, in time proportional to the size of the set.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[elements[i]] = 0;
+        }
+
+        size = 0;
+    }
+}
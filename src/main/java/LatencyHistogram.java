@@ -0,0 +1,176 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A class to record latencies (or any non-negative value) into log-linear buckets,
+ * so that percentiles can be computed in constant memory.<br><br>
+ * Each power of two is split into 16 buckets, which keeps the error of a reported percentile under ~6%.
+ * Instances are not thread-safe; record from a single thread and {@link #merge(LatencyHistogram)} the results.
+ *
+ * @author Evan Razzaque
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * A method to record a value.
+     *
+     * @param value The value to record. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * A method to add all the values recorded by another histogram to this one.
+     *
+     * @param other The histogram to merge
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * A method to remove all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * A method to write the histogram, with only the buckets that are not empty.
+     *
+     * @param out The output to write to
+     * @throws IOException If the histogram could not be written
+     * @see #readFrom(DataInput)
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int buckets = 0;
+
+        for (long bucketCount : counts) {
+            if (bucketCount > 0) buckets++;
+        }
+
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeLong(max);
+        out.writeShort(buckets);
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+
+            out.writeShort(i);
+            out.writeLong(counts[i]);
+        }
+    }
+
+    /**
+     * A method to read a histogram written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in The input to read from
+     * @return The histogram
+     * @throws IOException If the histogram could not be read
+     */
+    static LatencyHistogram readFrom(DataInput in) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.count = in.readLong();
+        histogram.sum = in.readLong();
+        histogram.max = in.readLong();
+
+        int buckets = in.readUnsignedShort();
+
+        for (int i = 0; i < buckets; i++) {
+            int bucket = in.readUnsignedShort();
+            if (bucket >= histogram.counts.length) throw new IOException("Invalid histogram bucket " + bucket);
+
+            histogram.counts[bucket] = in.readLong();
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Gets the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return The upper bound of the bucket containing the percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(bucketUpperBound(i), max);
+        }
+
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return (count == 0)? 0 : (double) sum / count;
+    }
+
+    /**
+     * A method to get the bucket a value falls into.
+     * Values below 16 get their own bucket, larger values share a bucket with their closest neighbours.
+     *
+     * @param value The value
+     * @return The bucket index
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * A method to get the largest value that falls into a bucket.
+     *
+     * @param bucket The bucket index
+     * @return The largest value of the bucket
+     */
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,483 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A file of pre-generated mine layouts, so benchmarks and bot evaluations can play the same boards on every run
+ * without placing mines again.<br><br>
+ * Every layout of a corpus has the same topology. The file is made of:
+ * <ul>
+ *   <li>A header of {@value #HEADER_SIZE} bytes: magic, version, topology (kind, columns, rows), number of layouts
+ *   and the seed they were generated with</li>
+ *   <li>An index of the offset of every layout, followed by the end of the last one, as longs</li>
+ *   <li>The layouts, each one either a list of mine indices stored as the varint gaps between them,
+ *   or a bitset of every cell, whichever is smaller for that layout (sparse layouts are smaller as gaps)</li>
+ * </ul>
+ * A corpus is read through a {@link MappedByteBuffer}, so layout N is found with a single index lookup and decoded
+ * straight from the mapped file. The buffer is only ever read with absolute gets, so any number of threads can
+ * decode layouts at once (see {@link #stream()}).
+ *
+ * @author Evan Razzaque
+ */
+public class LayoutCorpus {
+    static final int HEADER_SIZE = 32;
+
+    private static final int MAGIC = 0x4D535743;
+    private static final int VERSION = 1;
+
+    private static final byte GAPS = 0;
+    private static final byte BITSET = 1;
+
+    private final MappedByteBuffer buffer;
+    private final Topology topology;
+    private final int size;
+    private final long seed;
+
+    /**
+     * A constructor to map a corpus file.
+     *
+     * @param path The corpus file
+     * @throws IOException If the file could not be mapped or is not a corpus
+     */
+    public LayoutCorpus(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Corpus files are limited to 2 GB");
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) throw new IOException("Not a layout corpus");
+        if (buffer.getInt(4) != VERSION) throw new IOException("Unsupported corpus version " + buffer.getInt(4));
+
+        int ordinal = buffer.getInt(8);
+        int cols = buffer.getInt(12);
+        int rows = buffer.getInt(16);
+
+        if (ordinal < 0 || ordinal >= Topology.Kind.values().length) {
+            throw new IOException("Unknown topology kind " + ordinal);
+        }
+
+        Topology.Kind kind = Topology.Kind.values()[ordinal];
+
+        if (cols <= 0 || rows <= 0 || Topology.cellCount(kind, cols, rows) > Integer.MAX_VALUE) {
+            throw new IOException("Invalid board size " + cols + "x" + rows);
+        }
+
+        topology = Topology.of(kind, cols, rows);
+        size = buffer.getInt(20);
+        seed = buffer.getLong(24);
+
+        if (HEADER_SIZE + (size + 1L) * Long.BYTES > buffer.capacity()
+                || getOffset(size) != buffer.capacity()) {
+            throw new IOException("Truncated corpus");
+        }
+    }
+
+    /**
+     * A method to get a layout of the corpus. Nothing is decoded or copied until the layout is read.
+     *
+     * @param n The number of the layout, from 0 to {@link #size()} - 1
+     * @return The layout
+     */
+    public Layout get(int n) {
+        if (n < 0 || n >= size) throw new IndexOutOfBoundsException("Layout " + n + " of " + size);
+        return new Layout(n, (int) getOffset(n));
+    }
+
+    /**
+     * A method to stream every layout of the corpus. The stream can be made parallel, in which case
+     * the layouts are split into ranges decoded by different threads.
+     *
+     * @return The layouts, in order
+     */
+    public Stream<Layout> stream() {
+        return IntStream.range(0, size).mapToObj(this::get);
+    }
+
+    private long getOffset(int n) {
+        return buffer.getLong(HEADER_SIZE + n * Long.BYTES);
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * A layout of the corpus, read straight from the mapped file.
+     */
+    public class Layout {
+        private final int number;
+        private final int offset;
+
+        private Layout(int number, int offset) {
+            this.number = number;
+            this.offset = offset;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public int getMineCount() {
+            return buffer.getInt(offset + 1);
+        }
+
+        /**
+         * A method to check whether the layout is stored as a bitset rather than as gaps.
+         *
+         * @return true if the layout is a bitset, false otherwise
+         */
+        public boolean isBitset() {
+            return buffer.get(offset) == BITSET;
+        }
+
+        /**
+         * A method to call an action for every mine of the layout, in increasing order of index.
+         *
+         * @param action The action, which is given the index of the cell of each mine
+         */
+        public void forEachMine(IntConsumer action) {
+            int position = offset + 5;
+
+            if (isBitset()) {
+                int words = (topology.getCellCount() + 63) >>> 6;
+
+                for (int word = 0; word < words; word++) {
+                    long bits = buffer.getLong(position + word * Long.BYTES);
+
+                    while (bits != 0) {
+                        action.accept(word * 64 + Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+
+                return;
+            }
+
+            int index = -1;
+
+            for (int i = getMineCount(); i > 0; i--) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+
+                do {
+                    b = buffer.get(position++);
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+
+                index += gap + 1;
+                action.accept(index);
+            }
+        }
+
+        /**
+         * A method to copy the mine indices of the layout.
+         *
+         * @param mines The array to copy the indices to, with room for at least {@link #getMineCount()} indices
+         * @return The number of mines
+         */
+        public int getMines(int[] mines) {
+            int[] count = new int[1];
+            forEachMine(index -> mines[count[0]++] = index);
+
+            return count[0];
+        }
+
+        /**
+         * A method to create a started board with the mines of the layout.
+         *
+         * @return The board
+         */
+        public Board toBoard() {
+            Board board = new Board(topology);
+            forEachMine(board::placeMine);
+
+            return board;
+        }
+    }
+
+    /**
+     * A writer of corpus files. The number of layouts must be known up front, since the index comes before them.
+     */
+    public static class Writer implements Closeable {
+        private static final int BUFFER_SIZE = 1 << 20;
+
+        private final FileChannel channel;
+        private final Topology topology;
+        private final int size;
+        private final long[] offsets;
+        private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final long[] bits;
+        private int count;
+        private long position;
+
+        /**
+         * A constructor to create a corpus file.
+         *
+         * @param path The corpus file, which is replaced if it exists
+         * @param topology The topology of every layout
+         * @param size The number of layouts that will be added
+         * @param seed The seed the layouts were generated with (only stored for reference)
+         * @throws IOException If the file could not be created
+         */
+        public Writer(Path path, Topology topology, int size, long seed) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            this.topology = topology;
+            this.size = size;
+            offsets = new long[size + 1];
+            bits = new long[(topology.getCellCount() + 63) >>> 6];
+
+            output.putInt(MAGIC).putInt(VERSION).putInt(topology.getKind().ordinal())
+                .putInt(topology.getLayerWidth()).putInt(topology.getHeight()).putInt(size).putLong(seed);
+
+            // The index is written once every layout was added
+            position = HEADER_SIZE + (size + 1L) * Long.BYTES;
+            output.position(0).limit(HEADER_SIZE);
+            channel.write(output, 0);
+            output.clear();
+        }
+
+        /**
+         * A method to add a layout.
+         *
+         * @param mines The indices of the mines, in increasing order
+         * @param mineCount The number of mines
+         * @throws IOException If the layout could not be written
+         */
+        public void add(int[] mines, int mineCount) throws IOException {
+            if (count == size) throw new IllegalStateException("The corpus already has " + size + " layouts");
+
+            int gapsSize = 0;
+            int previous = -1;
+
+            for (int i = 0; i < mineCount; i++) {
+                gapsSize += varintSize(mines[i] - previous - 1);
+                previous = mines[i];
+            }
+
+            int bitsetSize = bits.length * Long.BYTES;
+            boolean isBitset = bitsetSize < gapsSize;
+
+            ensureRoom(5 + Math.min(gapsSize, bitsetSize));
+            offsets[count++] = position;
+            output.put(isBitset? BITSET : GAPS).putInt(mineCount);
+
+            if (isBitset) {
+                Arrays.fill(bits, 0);
+
+                for (int i = 0; i < mineCount; i++) {
+                    bits[mines[i] >>> 6] |= 1L << mines[i];
+                }
+
+                for (long word : bits) {
+                    output.putLong(word);
+                }
+            } else {
+                previous = -1;
+
+                for (int i = 0; i < mineCount; i++) {
+                    int gap = mines[i] - previous - 1;
+                    previous = mines[i];
+
+                    while ((gap & ~0x7F) != 0) {
+                        output.put((byte) ((gap & 0x7F) | 0x80));
+                        gap >>>= 7;
+                    }
+
+                    output.put((byte) gap);
+                }
+            }
+
+            position += 5 + (isBitset? bitsetSize : gapsSize);
+        }
+
+        /**
+         * A method to add the layout of a board.
+         *
+         * @param board A board with the topology of the corpus
+         * @throws IOException If the layout could not be written
+         */
+        public void add(Board board) throws IOException {
+            int[] mines = new int[board.getMines()];
+            int mineCount = 0;
+
+            for (int index = 0; index < topology.getCellCount() && mineCount < mines.length; index++) {
+                if ((board.getCellAt(index) & Cell.MINE) > 0) mines[mineCount++] = index;
+            }
+
+            add(mines, mineCount);
+        }
+
+        private static int varintSize(int value) {
+            return (32 - Integer.numberOfLeadingZeros(value | 1) + 6) / 7;
+        }
+
+        /**
+         * A method to make room in the output buffer, writing it to the file if needed.
+         *
+         * @param bytes The number of bytes needed
+         * @throws IOException If the buffer could not be written
+         */
+        private void ensureRoom(int bytes) throws IOException {
+            if (output.remaining() >= bytes) return;
+
+            flush();
+            if (output.capacity() < bytes) throw new IOException("Layouts are limited to " + BUFFER_SIZE + " bytes");
+        }
+
+        private void flush() throws IOException {
+            output.flip();
+            long start = position - output.remaining();
+
+            while (output.hasRemaining()) {
+                start += channel.write(output, start);
+            }
+
+            output.clear();
+        }
+
+        /**
+         * A method to write the index and close the file.
+         *
+         * @throws IOException If the file could not be written, or fewer layouts than announced were added
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                if (count != size) throw new IOException("Only " + count + " of " + size + " layouts were added");
+
+                offsets[size] = position;
+                ByteBuffer index = ByteBuffer.allocate(offsets.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                index.asLongBuffer().put(offsets);
+
+                long start = HEADER_SIZE;
+                while (index.hasRemaining()) {
+                    start += channel.write(index, start);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * A method to generate a corpus of random layouts, or to measure how fast a corpus is read.
+     *
+     * @param args {@code generate <file> <SQUARE|TORUS|HEX|LAYERED> <cols> <rows> <mines> <layouts> [seed]}
+     *             or {@code scan <file>}
+     * @throws IOException If the corpus could not be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 7 && args[0].equals("generate")) {
+            Topology topology = Topology.of(Topology.Kind.valueOf(args[2]),
+                Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            int mines = Integer.parseInt(args[5]);
+            int size = Integer.parseInt(args[6]);
+            long seed = (args.length > 7)? Long.parseLong(args[7]) : System.nanoTime();
+
+            long startTime = System.nanoTime();
+            generate(Path.of(args[1]), topology, mines, size, seed);
+
+            System.out.printf("Generated %,d layouts in %.0f ms (seed %d)%n",
+                size, (System.nanoTime() - startTime) / 1e6, seed);
+        } else if (args.length >= 2 && args[0].equals("scan")) {
+            LayoutCorpus corpus = new LayoutCorpus(Path.of(args[1]));
+
+            for (boolean parallel : new boolean[] {false, true}) {
+                long startTime = System.nanoTime();
+                Stream<Layout> layouts = parallel? corpus.stream().parallel() : corpus.stream();
+                long mines = layouts.mapToLong(LayoutCorpus::sumMines).sum();
+
+                System.out.printf("%s scan: %,d layouts (checksum %d) in %.0f ms%n",
+                    parallel? "Parallel" : "Sequential", corpus.size(), mines,
+                    (System.nanoTime() - startTime) / 1e6);
+            }
+        } else {
+            System.err.println("Usage: -corpus generate <file> <SQUARE|TORUS|HEX|LAYERED> <cols> <rows> <mines> "
+                + "<layouts> [seed]\n       -corpus scan <file>");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * A method to decode every mine of a layout, summing their indices as a checksum.
+     *
+     * @param layout The layout
+     * @return The sum of the mine indices
+     */
+    private static long sumMines(Layout layout) {
+        long[] sum = new long[1];
+        layout.forEachMine(index -> sum[0] += index);
+
+        return sum[0];
+    }
+
+    /**
+     * A method to write a corpus of random layouts. Layout N only depends on the seed and N.
+     *
+     * @param path The corpus file
+     * @param topology The topology of every layout
+     * @param mineCount The number of mines of every layout
+     * @param size The number of layouts
+     * @param seed The seed
+     * @throws IOException If the corpus could not be written
+     */
+    static void generate(Path path, Topology topology, int mineCount, int size, long seed) throws IOException {
+        int cellCount = topology.getCellCount();
+        if (mineCount >= cellCount) throw new IllegalArgumentException("There must be less mines than cells");
+
+        long[] placed = new long[(cellCount + 63) >>> 6];
+        int[] mines = new int[mineCount];
+
+        try (Writer writer = new Writer(path, topology, size, seed)) {
+            for (int n = 0; n < size; n++) {
+                SplittableRandom random = new SplittableRandom(seed + n);
+                Arrays.fill(placed, 0);
+
+                // Floyd's algorithm picks each mine with one random number, without retries or shuffling
+                for (int j = cellCount - mineCount; j < cellCount; j++) {
+                    int index = random.nextInt(j + 1);
+                    if ((placed[index >>> 6] & (1L << index)) != 0) index = j;
+
+                    placed[index >>> 6] |= 1L << index;
+                }
+
+                int count = 0;
+
+                for (int word = 0; word < placed.length; word++) {
+                    long bits = placed[word];
+
+                    while (bits != 0) {
+                        mines[count++] = word * 64 + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+
+                writer.add(mines, count);
+            }
+        }
+    }
+}
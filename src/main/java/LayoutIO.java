@@ -0,0 +1,447 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A class to read and write mine layouts, so known boards can be loaded and boards can be shared.<br><br>
+ * Two formats are supported, modelled on the formats used for Game of Life patterns:
+ * <ul>
+ *   <li>Text ({@code .txt}): one line per row, with {@code *} (or {@code x}) for a mine and {@code .}
+ *   (or a digit) for a safe cell. Lines starting with {@code !} are comments and blank lines are ignored</li>
+ *   <li>Run-length encoded ({@code .rle}): lines starting with {@code #} are comments, followed by a header such as
+ *   {@code x = 30, y = 16, topology = HEX} (the topology is optional) and runs such as {@code 3.2*}, where
+ *   {@code .} (or {@code b}) is a safe cell, {@code *} (or {@code o}) is a mine, {@code $} ends a row and
+ *   {@code !} ends the layout. Safe cells at the end of a row can be left out</li>
+ * </ul>
+ * Layouts are read and written in chunks of characters, so the whole layout is never held as a string.
+ * Mines are placed on the board as they are read (for text, once the size of the grid is known at the end),
+ * and the adjacent mine counts are updated with every mine placed.<br><br>
+ * The width of a layout is the width of the grid, which includes every layer of a layered board.
+ *
+ * @author Evan Razzaque
+ */
+public class LayoutIO {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_RLE_LINE_LENGTH = 70;
+
+    /** The most cells a layout can have, so the neighbour table of its topology (up to 8 per cell) fits in an array */
+    static final int MAX_CELLS = 1 << 26;
+
+    /**
+     * A method to convert a layout file from one format to the other.
+     *
+     * @param args [input file] [output file] [topology of text input (SQUARE by default)]
+     * @throws IOException If a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: -convert <input file> <output file> [SQUARE|TORUS|HEX|LAYERED]");
+            System.exit(1);
+        }
+
+        Topology.Kind kind = (args.length > 2)? Topology.Kind.valueOf(args[2]) : Topology.Kind.SQUARE;
+
+        long startTime = System.nanoTime();
+        Board board = read(Path.of(args[0]), kind);
+        long readTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        write(Path.of(args[1]), board);
+        long writeTime = System.nanoTime() - startTime;
+
+        Topology topology = board.getTopology();
+        System.out.printf("%dx%d %s board with %,d mines: read in %.1f ms, written in %.1f ms%n",
+            topology.getWidth(), topology.getHeight(), topology.getKind(), board.getMines(),
+            readTime / 1e6, writeTime / 1e6);
+    }
+
+    /**
+     * A method to read a layout file, in the format given by its extension ({@code .rle} or text otherwise).
+     *
+     * @param path The file
+     * @param kind The topology of the board if the file is a text layout (RLE layouts have their own)
+     * @return A started board with the mines of the layout
+     * @throws IOException If the file could not be read or is not a valid layout
+     */
+    public static Board read(Path path, Topology.Kind kind) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            return isRle(path)? readRle(reader) : readText(reader, kind);
+        }
+    }
+
+    /**
+     * A method to write the layout of a board to a file, in the format given by its extension
+     * ({@code .rle} or text otherwise).
+     *
+     * @param path The file
+     * @param board The board
+     * @throws IOException If the file could not be written
+     */
+    public static void write(Path path, Board board) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            if (isRle(path)) writeRle(writer, board);
+            else writeText(writer, board);
+        }
+    }
+
+    private static boolean isRle(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".rle");
+    }
+
+    /**
+     * A method to read a text layout.
+     *
+     * @param reader The reader of the layout
+     * @param kind The topology of the board
+     * @return A started board with the mines of the layout
+     * @throws IOException If the layout could not be read or is not valid
+     */
+    public static Board readText(Reader reader, Topology.Kind kind) throws IOException {
+        CharSource source = new CharSource(reader);
+
+        // The mines are kept by index until the size of the grid is known
+        int[] mines = new int[1024];
+        int mineCount = 0;
+        int width = -1;
+        int row = 0;
+        int col = 0;
+        boolean isLineStart = true;
+        boolean isComment = false;
+
+        while (true) {
+            int c = source.next();
+
+            if (c == -1 || c == '\n') {
+                if (!isComment && col > 0) {
+                    if (width < 0) width = col;
+                    else if (col != width) throw source.error("Row " + (row + 1) + " has " + col + " cells instead of " + width);
+
+                    row++;
+                    if ((long) row * width > MAX_CELLS) throw source.error("Layouts are limited to " + MAX_CELLS + " cells");
+                }
+
+                col = 0;
+                isLineStart = true;
+                isComment = false;
+
+                if (c == -1) break;
+                continue;
+            }
+
+            if (c == '\r') continue;
+            if (isLineStart && c == '!') isComment = true;
+
+            isLineStart = false;
+            if (isComment) continue;
+
+            if (c == '*' || c == 'x' || c == 'X') {
+                if (mineCount == mines.length) mines = Arrays.copyOf(mines, mineCount * 2);
+
+                // Rows after the first one are only read once the width is known
+                mines[mineCount++] = (width < 0)? col : row * width + col;
+            } else if (c != '.' && (c < '0' || c > '9')) {
+                throw source.error("Unexpected character '" + (char) c + "'");
+            }
+
+            col++;
+        }
+
+        if (width < 0) throw source.error("The layout has no cells");
+
+        Board board = new Board(createTopology(kind, width, row, source));
+
+        for (int i = 0; i < mineCount; i++) {
+            board.placeMine(mines[i]);
+        }
+
+        checkMines(board, source);
+        return board;
+    }
+
+    /**
+     * A method to write the layout of a board as text, one row at a time.
+     *
+     * @param writer The writer to write the layout to
+     * @param board The board
+     * @throws IOException If the layout could not be written
+     */
+    public static void writeText(Writer writer, Board board) throws IOException {
+        Topology topology = board.getTopology();
+        int width = topology.getWidth();
+        char[] line = new char[width + 1];
+        line[width] = '\n';
+
+        for (int y = 0; y < topology.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                line[x] = isMine(board, y * width + x)? '*' : '.';
+            }
+
+            writer.write(line);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * A method to read a run-length encoded layout. The board is created once the header is read,
+     * and every mine is placed on it as soon as it is read.
+     *
+     * @param reader The reader of the layout
+     * @return A started board with the mines of the layout
+     * @throws IOException If the layout could not be read or is not valid
+     */
+    public static Board readRle(Reader reader) throws IOException {
+        CharSource source = new CharSource(reader);
+        String header;
+
+        do {
+            header = source.nextLine();
+            if (header == null) throw source.error("Missing header");
+        } while (header.isBlank() || header.startsWith("#"));
+
+        int width = -1;
+        int height = -1;
+        Topology.Kind kind = Topology.Kind.SQUARE;
+
+        for (String field : header.split(",")) {
+            String[] parts = field.split("=");
+            if (parts.length != 2) throw source.error("Invalid header field '" + field.trim() + "'");
+
+            String key = parts[0].trim();
+            String value = parts[1].trim();
+
+            try {
+                switch (key) {
+                    case "x" -> width = Integer.parseInt(value);
+                    case "y" -> height = Integer.parseInt(value);
+                    case "topology" -> kind = Topology.Kind.valueOf(value.toUpperCase());
+                    default -> {
+                        // Other fields (such as rule) are ignored
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                throw source.error("Invalid value '" + value + "' for " + key);
+            }
+        }
+
+        if (width <= 0 || height <= 0) throw source.error("The header must have a positive x and y");
+
+        Board board = new Board(createTopology(kind, width, height, source));
+        int cellCount = board.getTopology().getCellCount();
+        int count = 0;
+        int x = 0;
+        int y = 0;
+
+        while (true) {
+            int c = source.next();
+            if (c == -1 || c == '!') break;
+
+            if (c >= '0' && c <= '9') {
+                count = count * 10 + (c - '0');
+                if (count > cellCount) throw source.error("Run too long");
+                continue;
+            }
+
+            int run = Math.max(count, 1);
+            count = 0;
+
+            switch (c) {
+                case '.', 'b' -> x += run;
+                case '*', 'o' -> {
+                    if (y >= height || x + run > width) throw source.error("Mines outside the grid");
+
+                    for (int i = 0; i < run; i++) {
+                        board.placeMine(y * width + x++);
+                    }
+                }
+                case '$' -> {
+                    x = 0;
+                    y += run;
+                    if (y > height) throw source.error("The layout has more than " + height + " rows");
+                }
+                case ' ', '\t', '\r', '\n' -> {}
+                default -> throw source.error("Unexpected character '" + (char) c + "'");
+            }
+
+            if (x > width) throw source.error("Row " + (y + 1) + " is longer than " + width + " cells");
+        }
+
+        checkMines(board, source);
+        return board;
+    }
+
+    /**
+     * A method to write the layout of a board as runs, one row at a time.
+     *
+     * @param writer The writer to write the layout to
+     * @param board The board
+     * @throws IOException If the layout could not be written
+     */
+    public static void writeRle(Writer writer, Board board) throws IOException {
+        Topology topology = board.getTopology();
+        int width = topology.getWidth();
+        RunWriter runs = new RunWriter(writer);
+
+        writer.write("x = " + width + ", y = " + topology.getHeight() + ", topology = " + topology.getKind() + "\n");
+
+        for (int y = 0; y < topology.getHeight(); y++) {
+            int x = 0;
+
+            while (x < width) {
+                boolean mine = isMine(board, y * width + x);
+                int start = x;
+
+                while (x < width && isMine(board, y * width + x) == mine) x++;
+
+                // Safe cells at the end of a row are implied
+                if (mine || x < width) runs.add(x - start, mine? '*' : '.');
+            }
+
+            runs.add(1, (y == topology.getHeight() - 1)? '!' : '$');
+        }
+
+        runs.finish();
+    }
+
+    private static boolean isMine(Board board, int index) {
+        return (board.getCellAt(index) & Cell.MINE) > 0;
+    }
+
+    /**
+     * A method to get the topology of a layout.
+     *
+     * @param kind The kind of topology
+     * @param width Width of the grid (of every layer for {@link Topology.Kind#LAYERED})
+     * @param height Height of the grid
+     * @param source The source of the layout, for errors
+     * @return The topology
+     * @throws IOException If the size does not fit the kind of topology or has too many cells
+     */
+    private static Topology createTopology(Topology.Kind kind, int width, int height, CharSource source)
+            throws IOException {
+        int cols = width;
+
+        if (kind == Topology.Kind.LAYERED) {
+            if (width % Topology.LAYERS != 0) {
+                throw source.error("The width of a layered layout must be a multiple of " + Topology.LAYERS);
+            }
+
+            cols = width / Topology.LAYERS;
+        }
+
+        if (Topology.cellCount(kind, cols, height) > MAX_CELLS) {
+            throw source.error("Layouts are limited to " + MAX_CELLS + " cells");
+        }
+
+        return Topology.of(kind, cols, height);
+    }
+
+    private static void checkMines(Board board, CharSource source) throws IOException {
+        if (board.getMines() >= board.getTopology().getCellCount()) {
+            throw source.error("The layout must have at least one cell without a mine");
+        }
+    }
+
+    /**
+     * A reader of characters in chunks, which keeps track of the line for errors.
+     */
+    private static class CharSource {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position, limit;
+        private int line = 1;
+
+        CharSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * A method to read the next character.
+         *
+         * @return The character, or -1 at the end of the layout
+         * @throws IOException If the layout could not be read
+         */
+        int next() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit <= 0) return -1;
+            }
+
+            char c = buffer[position++];
+            if (c == '\n') line++;
+
+            return c;
+        }
+
+        /**
+         * A method to read the rest of the current line, for short lines such as headers.
+         *
+         * @return The line without its terminator, or null at the end of the layout
+         * @throws IOException If the layout could not be read
+         */
+        String nextLine() throws IOException {
+            StringBuilder builder = new StringBuilder();
+            int c;
+
+            while ((c = next()) != -1 && c != '\n') {
+                if (c != '\r') builder.append((char) c);
+            }
+
+            return (c == -1 && builder.isEmpty())? null : builder.toString();
+        }
+
+        IOException error(String message) {
+            return new IOException("Invalid layout (line " + line + "): " + message);
+        }
+    }
+
+    /**
+     * A writer of runs, which merges consecutive runs of the same tag and wraps lines.
+     */
+    private static class RunWriter {
+        private final Writer writer;
+        private int pendingCount;
+        private char pendingTag;
+        private int lineLength;
+
+        RunWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void add(int count, char tag) throws IOException {
+            if (tag == pendingTag) {
+                pendingCount += count;
+                return;
+            }
+
+            flushRun();
+            pendingCount = count;
+            pendingTag = tag;
+        }
+
+        private void flushRun() throws IOException {
+            if (pendingCount == 0) return;
+
+            String run = (pendingCount == 1)? String.valueOf(pendingTag) : pendingCount + "" + pendingTag;
+
+            if (lineLength + run.length() > MAX_RLE_LINE_LENGTH) {
+                writer.write('\n');
+                lineLength = 0;
+            }
+
+            writer.write(run);
+            lineLength += run.length();
+        }
+
+        void finish() throws IOException {
+            flushRun();
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * A class used to launch the application from a jar file.
  *
@@ -9,9 +12,32 @@ public class Main {
     /**
      * A method to launch the application
      * @param args Command line args to change one or more options for the game. See {@link Game#start(Stage)} for
-     * more details.
+     * more details. If the first arg is {@code -arena}, the headless {@link ArenaServer} is started instead,
+     * {@code -arenaLoad} runs the {@link ArenaLoadClient} against it, {@code -stress} runs the
+     * {@link ConcurrentBoardStress} test, {@code -eventStress} runs the {@link BoardEventStreamStress} test,
+     * {@code -snapshotStress} runs the {@link BoardSnapshotStress} test,
+     * {@code -benchmark} runs the {@link TopologyBenchmark}, {@code -convert} converts a layout file
+     * with {@link LayoutIO}, {@code -corpus} generates or scans a {@link LayoutCorpus}, {@code -batch} benchmarks
+     * a {@link BatchEnvironment} and {@code -stats} reports or simulates games in a {@link GameStatsStore}.
+     * @throws IOException If the arena server could not be started
+     * @throws InterruptedException If the arena load client was interrupted
      */
-    public static void main(String[] args) {
-        Game.main(args);
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String mode = (args.length > 0)? args[0] : "";
+        String[] modeArgs = (args.length > 0)? Arrays.copyOfRange(args, 1, args.length) : args;
+
+        switch (mode) {
+            case "-arena" -> ArenaServer.main(modeArgs);
+            case "-arenaLoad" -> ArenaLoadClient.main(modeArgs);
+            case "-stress" -> ConcurrentBoardStress.main(modeArgs);
+            case "-eventStress" -> BoardEventStreamStress.main(modeArgs);
+            case "-snapshotStress" -> BoardSnapshotStress.main(modeArgs);
+            case "-benchmark" -> TopologyBenchmark.main(modeArgs);
+            case "-convert" -> LayoutIO.main(modeArgs);
+            case "-corpus" -> LayoutCorpus.main(modeArgs);
+            case "-batch" -> BatchEnvironment.main(modeArgs);
+            case "-stats" -> GameStatsStore.main(modeArgs);
+            default -> Game.main(args);
+        }
     }
 }
@@ -0,0 +1,89 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An in-process registry of latency histograms for the engine and renderer hot paths.<br><br>
+ * Metrics are only recorded when the {@value #PROPERTY} system property is true (the game sets it for
+ * {@code -metrics}). Since {@link #ENABLED} is a constant, the timing code is removed by the JIT when disabled.
+ * When enabled, a report of every timer is printed to standard error on exit.
+ *
+ * @author Evan Razzaque
+ */
+public class Metrics {
+    static final String PROPERTY = "minesweeper.metrics";
+    static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(getReport()), "metrics-dump"));
+        }
+    }
+
+    private Metrics() {}
+
+    /**
+     * A method to get (or create) the timer with the given name.
+     *
+     * @param name The timer name, such as "board.dig"
+     * @return The timer
+     */
+    static Timer timer(String name) {
+        return timers.computeIfAbsent(name, unused -> new Timer());
+    }
+
+    /**
+     * A method to get a report of every timer that recorded at least one value, one line per timer.
+     *
+     * @return The report, with times in microseconds
+     */
+    static String getReport() {
+        StringBuilder report = new StringBuilder(String.format("%-18s %7s %9s %9s %9s %9s%n",
+            "timer (us)", "count", "mean", "p50", "p99", "max"));
+
+        timers.forEach((name, timer) -> {
+            synchronized (timer.histogram) {
+                LatencyHistogram histogram = timer.histogram;
+                if (histogram.getCount() == 0) return;
+
+                report.append(String.format("%-18s %7d %9.1f %9.1f %9.1f %9.1f%n", name, histogram.getCount(),
+                    histogram.getMean() / 1000, histogram.getPercentile(50) / 1000.0,
+                    histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0));
+            }
+        });
+
+        return report.toString();
+    }
+
+    /**
+     * A timer which records durations into a histogram.
+     */
+    static class Timer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * A method to start timing.
+         *
+         * @return The start time to pass to {@link #stop(long)}, or 0 if metrics are disabled
+         */
+        long start() {
+            return ENABLED? System.nanoTime() : 0;
+        }
+
+        /**
+         * A method to record the time since {@link #start()}.
+         *
+         * @param start The value returned by {@link #start()}
+         */
+        void stop(long start) {
+            if (!ENABLED) return;
+
+            long duration = System.nanoTime() - start;
+
+            synchronized (histogram) {
+                histogram.record(duration);
+            }
+        }
+    }
+}
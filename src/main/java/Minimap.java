@@ -0,0 +1,207 @@
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * An overview of a whole board, for boards much larger than the canvas.<br><br>
+ * The grid is summarized by a pyramid of levels: level 0 splits the grid into blocks of 4x4 cells,
+ * and each following level into blocks twice as large, until a single block covers the grid.
+ * Every block holds the number of opened cells, flags and mines in it. The minimap image shows the finest level
+ * with at most {@code maxSize} blocks across and down, one pixel per block.<br><br>
+ * The counts are updated from the cells changed by each move (see {@link Board#getChangedCells()}),
+ * and only the pixels of the blocks those cells belong to are redrawn,
+ * so updating the minimap costs O(changed cells * levels) no matter how large the board is.
+ *
+ * @author Evan Razzaque
+ */
+class Minimap {
+    private static final Metrics.Timer UPDATE_TIMER = Metrics.timer("minimap.update");
+
+    private static final int OPENED = 0;
+    private static final int FLAGS = 1;
+    private static final int MINES = 2;
+    private static final int COUNTS = 3;
+
+    private static final Color FLAG_COLOR = Color.ORANGE;
+    private static final Color MINE_COLOR = Color.BLACK;
+
+    private final Topology topology;
+    private final int width, height;
+
+    // The counts of each block of each level, COUNTS ints per block
+    private final int[][] levels;
+    private final int[] levelCols, levelRows;
+
+    // The level shown on the image, and its blocks that changed since the image was last drawn
+    private final int displayLevel;
+    private final IntSet dirtyBlocks;
+    private final WritableImage image;
+    private final PixelWriter pixelWriter;
+    private final Color unopenedColor, openedColor;
+    private boolean minesVisible;
+
+    /**
+     * A constructor to create the minimap of the boards of a topology.
+     *
+     * @param topology The topology of the boards
+     * @param maxSize The maximum width and height of the image in pixels
+     * @param unopenedColor Color of unopened cells
+     * @param openedColor Color of opened cells
+     */
+    Minimap(Topology topology, int maxSize, Color unopenedColor, Color openedColor) {
+        this.topology = topology;
+        width = topology.getWidth();
+        height = topology.getHeight();
+        this.unopenedColor = unopenedColor;
+        this.openedColor = openedColor;
+
+        int levelCount = 1;
+        while (Math.max(width, height) > getBlockSize(levelCount - 1)) levelCount++;
+
+        levels = new int[levelCount][];
+        levelCols = new int[levelCount];
+        levelRows = new int[levelCount];
+
+        int display = levelCount - 1;
+
+        for (int level = levelCount - 1; level >= 0; level--) {
+            int blockSize = getBlockSize(level);
+            levelCols[level] = (width + blockSize - 1) / blockSize;
+            levelRows[level] = (height + blockSize - 1) / blockSize;
+            levels[level] = new int[levelCols[level] * levelRows[level] * COUNTS];
+
+            if (levelCols[level] <= maxSize && levelRows[level] <= maxSize) display = level;
+        }
+
+        displayLevel = display;
+        dirtyBlocks = new IntSet(levelCols[displayLevel] * levelRows[displayLevel]);
+        image = new WritableImage(levelCols[displayLevel], levelRows[displayLevel]);
+        pixelWriter = image.getPixelWriter();
+
+        reset();
+    }
+
+    /**
+     * A method to clear the counts, for a board where no mines were placed yet.
+     */
+    void reset() {
+        for (int[] counts : levels) {
+            Arrays.fill(counts, 0);
+        }
+
+        markAllDirty();
+    }
+
+    /**
+     * A method to update the counts from the cells changed on a board.
+     * The changes are not cleared, since other views of the board may still need them.
+     *
+     * @param board The board
+     */
+    void update(Board board) {
+        long startTime = UPDATE_TIMER.start();
+        IntSet changedCells = board.getChangedCells();
+
+        for (int i = 0; i < changedCells.size(); i++) {
+            int index = changedCells.get(i);
+            int oldCell = board.getPreviousState(index);
+            int newCell = board.getCellAt(index);
+
+            int opened = ((newCell >= Cell.OPENED)? 1 : 0) - ((oldCell >= Cell.OPENED)? 1 : 0);
+            int flags = (newCell & Cell.FLAG) - (oldCell & Cell.FLAG);
+            int mines = ((newCell & Cell.MINE) - (oldCell & Cell.MINE)) / Cell.MINE;
+
+            if (opened == 0 && flags == 0 && mines == 0) continue;
+
+            int x = index % width;
+            int y = index / width;
+
+            for (int level = 0; level < levels.length; level++) {
+                int shift = level + 2;
+                int block = (y >> shift) * levelCols[level] + (x >> shift);
+                int[] counts = levels[level];
+
+                counts[block * COUNTS + OPENED] += opened;
+                counts[block * COUNTS + FLAGS] += flags;
+                counts[block * COUNTS + MINES] += mines;
+
+                if (level == displayLevel) dirtyBlocks.add(block);
+            }
+        }
+
+        UPDATE_TIMER.stop(startTime);
+    }
+
+    /**
+     * A method to redraw the blocks that changed since the image was last drawn.
+     *
+     * @param minesVisible Whether to show the mines in unopened cells or not
+     */
+    void refresh(boolean minesVisible) {
+        if (minesVisible != this.minesVisible) {
+            this.minesVisible = minesVisible;
+            markAllDirty();
+        }
+
+        int cols = levelCols[displayLevel];
+        int[] counts = levels[displayLevel];
+
+        for (int i = 0; i < dirtyBlocks.size(); i++) {
+            int block = dirtyBlocks.get(i);
+            pixelWriter.setColor(block % cols, block / cols, getColor(block, counts));
+        }
+
+        dirtyBlocks.clear();
+    }
+
+    /**
+     * A method to get the color of a block, which blends the colors of its cells.
+     *
+     * @param block The index of the block in the display level
+     * @param counts The counts of the display level
+     * @return The color of the block
+     */
+    private Color getColor(int block, int[] counts) {
+        int cols = levelCols[displayLevel];
+        int blockSize = getBlockSize(displayLevel);
+        int blockWidth = Math.min(blockSize, width - block % cols * blockSize);
+        int blockHeight = Math.min(blockSize, height - block / cols * blockSize);
+        double cells = blockWidth * blockHeight;
+
+        int opened = counts[block * COUNTS + OPENED];
+        int flags = counts[block * COUNTS + FLAGS];
+        int mines = counts[block * COUNTS + MINES];
+
+        Color color = unopenedColor.interpolate(openedColor, opened / cells);
+        if (flags > 0) color = color.interpolate(FLAG_COLOR, Math.max(0.5, flags / cells));
+        if (minesVisible && mines > 0) color = color.interpolate(MINE_COLOR, mines / cells);
+
+        return color;
+    }
+
+    private void markAllDirty() {
+        for (int block = 0; block < levelCols[displayLevel] * levelRows[displayLevel]; block++) {
+            dirtyBlocks.add(block);
+        }
+    }
+
+    /**
+     * Gets the number of columns (and rows) of the grid covered by a block of a level.
+     *
+     * @param level The level
+     * @return The size of a block
+     */
+    private static int getBlockSize(int level) {
+        return 4 << level;
+    }
+
+    Topology getTopology() {
+        return topology;
+    }
+
+    WritableImage getImage() {
+        return image;
+    }
+}
@@ -6,17 +6,16 @@ import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 import nodes.ButtonGroup;
 import nodes.LabeledTextField;
 
-import java.io.InputStream;
-import java.util.Objects;
-
 /**
  * A class to handle node design.
  *
@@ -31,16 +30,6 @@ public class NodeDesigner {
      * @param flagCountLabel Flag Count Display
      */
     static void configure(Canvas canvas, Button resetButton, Label flagCountLabel, VBox settingsContainer, ButtonGroup difficultyButtons) {
-        try {
-            InputStream minesweeperFont = NodeDesigner.class.getResource("main/java/resources/fonts/mine-sweeper.ttf").openStream();
-            InputStream sevenSegmentFont = NodeDesigner.class.getResource("main/java/resources/fonts/7segment.ttf").openStream();
-
-            Font.loadFont(minesweeperFont, 12);
-            Font.loadFont(sevenSegmentFont, 12);
-        } catch (Exception e) {
-            System.err.println(e.getMessage());
-        }
-
         canvas.relocate(200, 100);
 
         GraphicsContext gc = canvas.getGraphicsContext2D();
@@ -48,7 +37,6 @@ public class NodeDesigner {
         gc.setLineWidth(2);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setTextBaseline(VPos.CENTER);
-        gc.setFont(Font.font("MINE-SWEEPER"));
 
         resetButton.setPadding(Insets.EMPTY);
         resetButton.setPrefSize(42, 42);
@@ -59,9 +47,10 @@ public class NodeDesigner {
         flagCountLabel.relocate(200, 50);
         flagCountLabel.setPadding(new Insets(-2, 4, -2, 2));
         flagCountLabel.setBackground(Background.fill(Color.BLACK));
-        flagCountLabel.setFont(Font.font("7-Segment", 40));
         flagCountLabel.setTextFill(Color.RED);
 
+        configureFonts(canvas, flagCountLabel);
+
         settingsContainer.relocate(50, 100);
 
         for (Node child : settingsContainer.getChildren()) {
@@ -70,4 +59,54 @@ public class NodeDesigner {
 
         difficultyButtons.relocate(50, 300);
     }
+
+    /**
+     * A method to configure the hint and auto assist controls.
+     *
+     * @param assistContainer The container of the controls
+     * @param hintButton Hint Button
+     */
+    static void configureAssist(VBox assistContainer, Button hintButton) {
+        assistContainer.relocate(50, 420);
+        hintButton.setMaxWidth(Double.MAX_VALUE);
+    }
+
+    /**
+     * A method to configure the minimap, which is scaled up without smoothing so every block stays sharp.
+     *
+     * @param minimapView Minimap
+     * @param size Width and height of the minimap
+     */
+    static void configureMinimap(ImageView minimapView, int size) {
+        minimapView.relocate(950, 100);
+        minimapView.setFitWidth(size);
+        minimapView.setFitHeight(size);
+        minimapView.setPreserveRatio(true);
+        minimapView.setSmooth(false);
+    }
+
+    /**
+     * A method to set the fonts of the nodes. Since the fonts are loaded in the background
+     * (see {@link Resources#loadFontsAsync()}), this is called again once they are available.
+     *
+     * @param canvas Canvas
+     * @param flagCountLabel Flag Count Display
+     */
+    static void configureFonts(Canvas canvas, Label flagCountLabel) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFont(Font.font("MINE-SWEEPER", FontWeight.BOLD, gc.getFont().getSize()));
+
+        flagCountLabel.setFont(Font.font("7-Segment", 40));
+    }
+
+    /**
+     * A method to configure the metrics overlay, which is placed below the board.
+     *
+     * @param metricsLabel Metrics Overlay
+     */
+    static void configureMetricsOverlay(Label metricsLabel) {
+        metricsLabel.relocate(200, 830);
+        metricsLabel.setFont(Font.font("Monospaced", 12));
+        metricsLabel.setMouseTransparent(true);
+    }
 }
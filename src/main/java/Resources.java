@@ -0,0 +1,60 @@
+import javafx.scene.image.Image;
+import javafx.scene.text.Font;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A class to load the fonts and images of the game lazily, so they don't delay the first frame.
+ *
+ * @author Evan Razzaque
+ */
+class Resources {
+    private static final URL RESOURCE_PATH = Resources.class.getResource("main/java/resources");
+    private static final Map<String, Image> images = new HashMap<>();
+
+    private Resources() {}
+
+    /**
+     * A method to load the fonts of the game on a background thread.
+     * Until they are loaded, nodes using them are drawn with the default font.
+     *
+     * @return A future which completes once the fonts are loaded
+     */
+    static CompletableFuture<Void> loadFontsAsync() {
+        return CompletableFuture.runAsync(() -> {
+            loadFont("mine-sweeper.ttf");
+            loadFont("7segment.ttf");
+        });
+    }
+
+    /**
+     * A method to load a font from the resources.
+     *
+     * @param name Font file name
+     */
+    private static void loadFont(String name) {
+        try (InputStream font = Resources.class.getResource("main/java/resources/fonts/" + name).openStream()) {
+            Font.loadFont(font, 12);
+        } catch (Exception e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * A method to get an image from the resources. Each image is only loaded once, on first use,
+     * and is decoded in the background.
+     *
+     * @param name Image name without extension
+     * @param size Width and height to scale the image to
+     * @return The image
+     */
+    static Image getImage(String name, double size) {
+        return images.computeIfAbsent(name + "@" + size, unused ->
+            new Image(RESOURCE_PATH + "/images/" + name + ".png", size, size, true, false, true)
+        );
+    }
+}
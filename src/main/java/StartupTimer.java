@@ -0,0 +1,58 @@
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A class to record how long each startup phase takes, measured from the start of the JVM.
+ *
+ * @author Evan Razzaque
+ */
+class StartupTimer {
+    static final String MAIN = "Main";
+    static final String APPLICATION_STARTED = "Application started";
+    static final String WINDOW_SHOWN = "Window shown";
+    static final String FIRST_FRAME = "First frame";
+    static final String FONTS_LOADED = "Fonts loaded";
+    static final String FIRST_CLICK = "First click";
+
+    // The process start time has a resolution of a few milliseconds on some platforms
+    private static final long jvmStart = ProcessHandle.current().info().startInstant()
+        .map(Instant::toEpochMilli)
+        .orElse(System.currentTimeMillis());
+
+    private static final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private StartupTimer() {}
+
+    /**
+     * A method to record that a startup phase was reached. Only the first time a phase is reached is kept.
+     *
+     * @param phase The name of the phase
+     */
+    static synchronized void mark(String phase) {
+        phases.putIfAbsent(phase, System.currentTimeMillis() - jvmStart);
+    }
+
+    /**
+     * A method to check if a startup phase was reached.
+     *
+     * @param phase The name of the phase
+     * @return true if the phase was reached, false otherwise
+     */
+    static synchronized boolean isMarked(String phase) {
+        return phases.containsKey(phase);
+    }
+
+    /**
+     * A method to get a report of every phase reached so far, in the order they were reached.
+     *
+     * @return The report
+     */
+    static synchronized String getReport() {
+        StringBuilder report = new StringBuilder("Startup timing (ms since JVM start):\n");
+
+        phases.forEach((phase, time) -> report.append(String.format("  %-20s %6d%n", phase, time)));
+
+        return report.toString();
+    }
+}
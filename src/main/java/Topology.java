@@ -0,0 +1,256 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A class describing which cells of a board are neighbours.<br><br>
+ * Cells are laid out on a 2D grid of {@link #getWidth()} by {@link #getHeight()} cells (the grid that is drawn),
+ * and are identified by their index {@code y * width + x}. The neighbours of every cell are computed once
+ * and stored in a compressed sparse row table: the neighbours of cell i are
+ * {@code neighbours[neighbourStarts[i]]} to {@code neighbours[neighbourStarts[i + 1] - 1]}.
+ * This way digging, chording and counting mines are the same simple loop for every topology.<br><br>
+ * Topologies only depend on their size, so recently used ones are shared by every board of the same kind and size.
+ *
+ * @author Evan Razzaque
+ */
+public class Topology {
+    /**
+     * The kinds of topologies.
+     */
+    public enum Kind {
+        /** The standard board, where each cell has up to 8 neighbours */
+        SQUARE,
+        /** A square board where the edges wrap around, so every cell has 8 neighbours */
+        TORUS,
+        /** A board of hexagons, where odd rows are shifted right by half a cell and each cell has up to 6 neighbours */
+        HEX,
+        /** A stack of square boards drawn side by side, where each cell has up to 26 neighbours */
+        LAYERED
+    }
+
+    static final int LAYERS = 3;
+
+    private static final int CACHE_SIZE = 8;
+
+    // The most recently used topologies, since large neighbour tables take a lot of memory
+    private static final Map<String, Topology> topologies = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Topology> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final Kind kind;
+    private final int width, height;
+    private final int layerWidth;
+    private final int[] neighbourStarts;
+    private final int[] neighbours;
+    private final int maxNeighbours;
+
+    /**
+     * A constructor to build the neighbour table of a topology.
+     *
+     * @param kind The kind of topology
+     * @param cols Number of columns (of each layer for {@link Kind#LAYERED})
+     * @param rows Number of rows
+     */
+    private Topology(Kind kind, int cols, int rows) {
+        this.kind = kind;
+        layerWidth = cols;
+        width = (kind == Kind.LAYERED)? cols * LAYERS : cols;
+        height = rows;
+
+        int cellCount = width * height;
+        int[] cellNeighbours = new int[26];
+        int[] table = new int[cellCount * 8];
+        int size = 0;
+        int max = 0;
+
+        neighbourStarts = new int[cellCount + 1];
+
+        for (int index = 0; index < cellCount; index++) {
+            int count = findNeighbours(index % width, index / width, cellNeighbours);
+
+            if (size + count > table.length) table = Arrays.copyOf(table, Math.max(table.length * 2, size + count));
+            System.arraycopy(cellNeighbours, 0, table, size, count);
+
+            size += count;
+            max = Math.max(max, count);
+            neighbourStarts[index + 1] = size;
+        }
+
+        neighbours = Arrays.copyOf(table, size);
+        maxNeighbours = max;
+    }
+
+    /**
+     * A method to get the topology of the given kind and size, building it on first use.
+     *
+     * @param kind The kind of topology
+     * @param cols Number of columns (of each layer for {@link Kind#LAYERED})
+     * @param rows Number of rows
+     * @return The topology
+     */
+    public static synchronized Topology of(Kind kind, int cols, int rows) {
+        return topologies.computeIfAbsent(kind + ":" + cols + "x" + rows, unused -> new Topology(kind, cols, rows));
+    }
+
+    /**
+     * A method to get the number of cells of a topology without building it.
+     *
+     * @param kind The kind of topology
+     * @param cols Number of columns (of each layer for {@link Kind#LAYERED})
+     * @param rows Number of rows
+     * @return Number of cells, which may not fit in an int
+     */
+    public static long cellCount(Kind kind, int cols, int rows) {
+        return (long) cols * rows * ((kind == Kind.LAYERED)? LAYERS : 1);
+    }
+
+    /**
+     * A method to find the neighbours of a cell.
+     *
+     * @param x Cell column
+     * @param y Cell row
+     * @param neighbours The array to store the neighbour indices in
+     * @return The number of neighbours
+     */
+    private int findNeighbours(int x, int y, int[] neighbours) {
+        int count = 0;
+
+        switch (kind) {
+            case SQUARE, TORUS -> {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if (dx == 0 && dy == 0) continue;
+
+                        int col = x + dx;
+                        int row = y + dy;
+
+                        if (kind == Kind.TORUS) {
+                            col = Math.floorMod(col, width);
+                            row = Math.floorMod(row, height);
+                        }
+
+                        count = addNeighbour(col, row, x, y, neighbours, count);
+                    }
+                }
+            }
+            case HEX -> {
+                // Odd rows are shifted right, so their diagonal neighbours are one column further right
+                int shift = y % 2;
+
+                count = addNeighbour(x - 1, y, x, y, neighbours, count);
+                count = addNeighbour(x + 1, y, x, y, neighbours, count);
+
+                for (int dy = -1; dy <= 1; dy += 2) {
+                    count = addNeighbour(x - 1 + shift, y + dy, x, y, neighbours, count);
+                    count = addNeighbour(x + shift, y + dy, x, y, neighbours, count);
+                }
+            }
+            case LAYERED -> {
+                int layer = x / layerWidth;
+                int col = x % layerWidth;
+
+                for (int dl = -1; dl <= 1; dl++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if (dl == 0 && dy == 0 && dx == 0) continue;
+                            if (layer + dl < 0 || layer + dl >= LAYERS) continue;
+                            if (col + dx < 0 || col + dx >= layerWidth) continue;
+
+                            count = addNeighbour((layer + dl) * layerWidth + col + dx, y + dy, x, y, neighbours, count);
+                        }
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * A method to add a neighbour to a cell, unless it is outside the grid, the cell itself, or already added
+     * (which happens when a torus is less than 3 cells wide or high).
+     *
+     * @return The new number of neighbours
+     */
+    private int addNeighbour(int col, int row, int x, int y, int[] neighbours, int count) {
+        if (col < 0 || col >= width || row < 0 || row >= height) return count;
+        if (col == x && row == y) return count;
+
+        int index = row * width + col;
+
+        for (int i = 0; i < count; i++) {
+            if (neighbours[i] == index) return count;
+        }
+
+        neighbours[count] = index;
+        return count + 1;
+    }
+
+    /**
+     * Gets the start of the neighbours of each cell in {@link #getNeighbours()}, followed by the total length.
+     * The returned array must not be modified.
+     *
+     * @return The neighbour start of each cell
+     */
+    int[] getNeighbourStarts() {
+        return neighbourStarts;
+    }
+
+    /**
+     * Gets the neighbours of every cell, one cell after the other. The returned array must not be modified.
+     *
+     * @return The neighbour indices
+     * @see #getNeighbourStarts()
+     */
+    int[] getNeighbours() {
+        return neighbours;
+    }
+
+    public int getMaxNeighbours() {
+        return maxNeighbours;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the number of columns of the grid, which includes every layer of a {@link Kind#LAYERED} topology.
+     *
+     * @return Number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of columns of each layer, which is the width of the grid unless the topology is layered.
+     *
+     * @return Number of columns per layer
+     */
+    public int getLayerWidth() {
+        return layerWidth;
+    }
+
+    public int getCellCount() {
+        return width * height;
+    }
+
+    /**
+     * A method to get the index of a cell.
+     *
+     * @param x Cell column (0-based)
+     * @param y Cell row (0-based)
+     * @return The cell index
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A benchmark comparing the {@link Topology} kinds. For each kind, the time to build the neighbour table is measured,
+ * then boards of that kind are played with random digs, flags and chords (mines are flagged rather than dug,
+ * so games keep going until they are won) and the throughput of the moves is printed.
+ *
+ * @author Evan Razzaque
+ */
+public class TopologyBenchmark {
+    /**
+     * A method to run the benchmark.
+     *
+     * @param args [cols] [rows] [mine density] [moves per topology]
+     */
+    public static void main(String[] args) {
+        int cols = (args.length > 0)? Integer.parseInt(args[0]) : 1000;
+        int rows = (args.length > 1)? Integer.parseInt(args[1]) : 1000;
+        double density = (args.length > 2)? Double.parseDouble(args[2]) : 0.15;
+        int moves = (args.length > 3)? Integer.parseInt(args[3]) : 5_000_000;
+
+        System.out.printf("%-8s %10s %12s %10s %14s%n", "Topology", "Cells", "Build (ms)", "Games", "Moves/s");
+
+        for (Topology.Kind kind : Topology.Kind.values()) {
+            long start = System.nanoTime();
+            Topology topology = Topology.of(kind, cols, rows);
+            double buildMillis = (System.nanoTime() - start) / 1e6;
+
+            int mines = (int) (topology.getCellCount() * density);
+            int[] games = new int[1];
+
+            // Warms up the dig and chord paths before measuring
+            play(topology, mines, moves / 10, games);
+
+            games[0] = 0;
+            start = System.nanoTime();
+            play(topology, mines, moves, games);
+            double movesPerSecond = moves / ((System.nanoTime() - start) / 1e9);
+
+            System.out.printf("%-8s %,10d %12.1f %,10d %,14.0f%n",
+                kind, topology.getCellCount(), buildMillis, games[0], movesPerSecond);
+        }
+    }
+
+    /**
+     * A method to play random moves on boards of a topology, starting a new board whenever a game ends.
+     *
+     * @param topology The topology of the boards
+     * @param mines Number of mines per board
+     * @param moves Number of moves to play
+     * @param games The number of boards played is added to the first element
+     */
+    private static void play(Topology topology, int mines, int moves, int[] games) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int width = topology.getWidth();
+        int height = topology.getHeight();
+        Board board = null;
+
+        for (int move = 0; move < moves; move++) {
+            if (board == null || board.isGameWon()) {
+                board = new Board(topology, mines);
+                board.start(random.nextInt(width), random.nextInt(height));
+                games[0]++;
+            }
+
+            int x = random.nextInt(width) + 1;
+            int y = random.nextInt(height) + 1;
+            int cell = board.getCell(x, y);
+
+            if ((cell & Cell.OPENED) > 0) {
+                board.chord(x, y);
+            } else if ((cell & Cell.MINE) > 0) {
+                if ((cell & Cell.FLAG) == 0) board.toggleFlag(x, y);
+            } else {
+                board.dig(x, y);
+            }
+        }
+    }
+}
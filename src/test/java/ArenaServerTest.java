@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link ArenaServer}.
+ *
+ * @author Evan Razzaque
+ */
+class ArenaServerTest {
+    private ArenaServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ArenaServer(0, 1);
+
+        Thread thread = new Thread(server::run, "arena-accept");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void repliesToPipelinedRequestsLargerThanTheOutputLimit() throws IOException, InterruptedException {
+        int views = 20;
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            // About 20 MB of replies, so the server stops reading the requests until the client catches up
+            Thread writer = new Thread(() -> {
+                try {
+                    OutputStream output = socket.getOutputStream();
+                    output.write(("NEW 1000 1000 1\n" + "VIEW\n".repeat(views) + "QUIT\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                    output.flush();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            writer.start();
+            Thread.sleep(200);
+
+            InputStream input = socket.getInputStream();
+            byte[] buffer = new byte[1 << 16];
+            long bytes = 0;
+            int lines = 0;
+            int read;
+
+            while ((read = input.read(buffer)) >= 0) {
+                bytes += read;
+
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') lines++;
+                }
+            }
+
+            writer.join();
+
+            assertEquals(1 + views, lines);
+            assertEquals("OK 1\n".length() + views * ("OK 1000 1000 \n".length() + 1_000_000L), bytes);
+        }
+    }
+}
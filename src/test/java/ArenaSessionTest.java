@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests for {@link ArenaSession}.
+ *
+ * @author Evan Razzaque
+ */
+class ArenaSessionTest {
+    private static final int COLS = 8, ROWS = 8, MINES = 10;
+
+    private final ArenaSession session = new ArenaSession();
+
+    @Test
+    void chordThatOpensTheLastSafeCellWinsTheGame() {
+        for (long seed = 0; seed < 1000; seed++) {
+            // A board with the same seed and first move has the same mines as the session's board
+            Board mirror = new Board(Topology.of(Topology.Kind.SQUARE, COLS, ROWS), MINES);
+            mirror.start(0, 0, seed);
+            mirror.dig(1, 1);
+
+            int[] last = findLastCell(mirror);
+            if (last == null) continue;
+
+            assertEquals("OK " + MINES, send("NEW " + COLS + " " + ROWS + " " + MINES + " SQUARE " + seed));
+            assertEquals("OK PLAYING " + MINES + " 1", send("MOVES d 0 0"));
+
+            // Open every safe cell except the last one, which is not next to an empty cell
+            StringBuilder moves = new StringBuilder("MOVES");
+
+            for (int y = 1; y <= ROWS; y++) {
+                for (int x = 1; x <= COLS; x++) {
+                    int cell = mirror.getCell(x, y);
+
+                    if ((cell & (Cell.OPENED | Cell.MINE)) == 0 && (x != last[0] || y != last[1])) {
+                        mirror.dig(x, y);
+                        moves.append(" d ").append(x - 1).append(' ').append(y - 1);
+                    }
+                }
+            }
+
+            assertTrue(send(moves.toString()).startsWith("OK PLAYING "));
+
+            // Flag the mines around an opened neighbour of the last cell, then chord it
+            moves.setLength(0);
+            moves.append("MOVES");
+
+            for (int y = last[3] - 1; y <= last[3] + 1; y++) {
+                for (int x = last[2] - 1; x <= last[2] + 1; x++) {
+                    if (isMine(mirror, x, y)) moves.append(" f ").append(x - 1).append(' ').append(y - 1);
+                }
+            }
+
+            moves.append(" c ").append(last[2] - 1).append(' ').append(last[3] - 1);
+
+            String reply = send(moves.toString());
+            assertTrue(reply.startsWith("OK WON "), reply);
+            return;
+        }
+
+        fail("No seed gave a board that can be won with a chord");
+    }
+
+    @Test
+    void invalidBatchAppliesNoMoves() {
+        assertEquals("OK " + MINES, send("NEW " + COLS + " " + ROWS + " " + MINES + " SQUARE 1"));
+
+        assertTrue(send("MOVES d 0 0 f 1 1 d 8 0").startsWith("ERR "));
+        assertTrue(send("MOVES d 0 0 x 1 1").startsWith("ERR "));
+        assertEquals("OK " + COLS + " " + ROWS + " " + "#".repeat(COLS * ROWS), send("VIEW"));
+
+        // The board is still unstarted, so the next batch starts it
+        assertTrue(send("MOVES d 0 0").startsWith("OK "));
+    }
+
+    /**
+     * A method to find a safe cell that is not next to an empty cell, so digging the other safe cells never opens it,
+     * along with a safe neighbour that can chord it.
+     *
+     * @param board The board
+     * @return {x, y, neighbour x, neighbour y}, or null if there is no such cell
+     */
+    private static int[] findLastCell(Board board) {
+        for (int y = 1; y <= ROWS; y++) {
+            for (int x = 1; x <= COLS; x++) {
+                if ((board.getCell(x, y) & (Cell.OPENED | Cell.MINE)) > 0) continue;
+
+                int[] neighbour = null;
+                boolean nextToEmpty = false;
+
+                for (int ny = y - 1; ny <= y + 1; ny++) {
+                    for (int nx = x - 1; nx <= x + 1; nx++) {
+                        if (nx < 1 || nx > COLS || ny < 1 || ny > ROWS || (nx == x && ny == y)) continue;
+                        if (isMine(board, nx, ny)) continue;
+
+                        if (countMines(board, nx, ny) == 0) nextToEmpty = true;
+                        else neighbour = new int[] {x, y, nx, ny};
+                    }
+                }
+
+                if (!nextToEmpty && neighbour != null) return neighbour;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isMine(Board board, int x, int y) {
+        return x >= 1 && x <= COLS && y >= 1 && y <= ROWS && (board.getCell(x, y) & Cell.MINE) > 0;
+    }
+
+    private static int countMines(Board board, int x, int y) {
+        int mines = 0;
+
+        for (int ny = y - 1; ny <= y + 1; ny++) {
+            for (int nx = x - 1; nx <= x + 1; nx++) {
+                if (isMine(board, nx, ny)) mines++;
+            }
+        }
+
+        return mines;
+    }
+
+    private String send(String request) {
+        byte[] line = request.getBytes(StandardCharsets.US_ASCII);
+        StringBuilder reply = new StringBuilder();
+
+        session.handle(line, 0, line.length, reply);
+        return reply.toString().trim();
+    }
+}
@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link Assistant}.
+ *
+ * @author Evan Razzaque
+ */
+class AssistantTest {
+    /**
+     * A method to set up a single row of 5 cells with a mine in the middle, with the left side dug.
+     *
+     * @return The board
+     */
+    private static Board createBoard() {
+        Board board = new Board(Topology.of(Topology.Kind.SQUARE, 5, 1));
+        board.placeMine(2);
+        board.dig(1, 1);
+
+        return board;
+    }
+
+    @Test
+    void assistCountsAppliedFlags() {
+        Board board = createBoard();
+
+        assertEquals(1, new Assistant(board).assist());
+        assertEquals(0, board.getFlags());
+    }
+
+    @Test
+    void assistDoesNotCountFlagsThatAreNotLeft() {
+        Board board = createBoard();
+
+        // The only flag is used on the wrong cell, so the proven mine can not be flagged
+        board.toggleFlag(5, 1);
+
+        assertEquals(0, new Assistant(board).assist());
+        assertEquals(0, board.getCell(3, 1) & Cell.FLAG);
+    }
+}
@@ -0,0 +1,44 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BatchEnvironment}.
+ *
+ * @author Evan Razzaque
+ */
+class BatchEnvironmentTest {
+    private static final int BATCH_SIZE = 64;
+
+    @Test
+    void invalidActionStepsNoGame() {
+        BatchEnvironment environment = new BatchEnvironment(Topology.of(Topology.Kind.SQUARE, 8, 8), 10, BATCH_SIZE, 1);
+        int cellCount = environment.getTopology().getCellCount();
+
+        byte[] observations = new byte[environment.getObservationSize()];
+        float[] rewards = new float[BATCH_SIZE];
+        boolean[] dones = new boolean[BATCH_SIZE];
+        int[] actions = new int[BATCH_SIZE];
+
+        environment.reset(observations);
+        byte[] reset = observations.clone();
+
+        for (int invalid : new int[] {-1, 2 * cellCount}) {
+            actions[BATCH_SIZE - 1] = invalid;
+
+            assertThrows(IllegalArgumentException.class, () -> environment.step(actions, observations, rewards, dones));
+            assertArrayEquals(reset, observations);
+            assertArrayEquals(new float[BATCH_SIZE], rewards);
+        }
+
+        // The games are still unstarted, so the next step digs the first cell of each of them
+        actions[BATCH_SIZE - 1] = 0;
+        environment.step(actions, observations, rewards, dones);
+
+        for (int game = 0; game < BATCH_SIZE; game++) {
+            assertTrue(rewards[game] > 0, "Game " + game);
+        }
+    }
+}
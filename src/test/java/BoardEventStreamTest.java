@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BoardEventStream} and the events published by {@link Board}.
+ *
+ * @author Evan Razzaque
+ */
+class BoardEventStreamTest {
+    private Board board;
+    private BoardEventStream.Subscription subscription;
+
+    /**
+     * Sets up 5 columns and 2 rows with mines at (4, 1) and (5, 2), where digging (1, 1) opens the first 3 columns.
+     */
+    @BeforeEach
+    void setUp() {
+        board = new Board(Topology.of(Topology.Kind.SQUARE, 5, 2));
+        board.placeMine(3);
+        board.placeMine(9);
+        board.dig(1, 1);
+
+        BoardEventStream stream = new BoardEventStream(64);
+        subscription = stream.subscribe();
+        board.setEventStream(stream);
+    }
+
+    @Test
+    void losingDigIsPublished() {
+        board.dig(4, 1);
+
+        BoardEventStream.Event event = lastEvent();
+        assertEquals(BoardEventStream.Move.DIG, event.move);
+        assertEquals(0, event.cellCount);
+        assertTrue(event.gameLost);
+    }
+
+    @Test
+    void losingChordIsPublished() {
+        // A chord with too many flags marks them as used without digging, so the next chord changes no cell
+        board.toggleFlag(4, 1);
+        board.toggleFlag(4, 2);
+        board.chord(3, 1);
+        board.toggleFlag(4, 1);
+        board.chord(3, 2);
+
+        BoardEventStream.Event event = lastEvent();
+        assertEquals(BoardEventStream.Move.CHORD, event.move);
+        assertEquals(0, event.cellCount);
+        assertTrue(event.gameLost);
+    }
+
+    @Test
+    void moveThatChangesNothingIsNotPublished() {
+        board.dig(1, 1);
+
+        assertEquals(BoardEventStream.Poll.EMPTY, subscription.poll(new BoardEventStream.Event()));
+    }
+
+    private BoardEventStream.Event lastEvent() {
+        BoardEventStream.Event event = new BoardEventStream.Event();
+        BoardEventStream.Event last = null;
+
+        while (subscription.poll(event) == BoardEventStream.Poll.EVENT) {
+            last = event;
+            event = new BoardEventStream.Event();
+        }
+
+        assertTrue(last != null, "No event was published");
+        return last;
+    }
+}
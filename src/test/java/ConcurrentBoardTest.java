@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ConcurrentBoard}, which must follow the same rules as {@link Board}.
+ *
+ * @author Evan Razzaque
+ */
+class ConcurrentBoardTest {
+    private static final int COLS = 16, ROWS = 16, MINES = 40;
+
+    @Test
+    void playsLikeBoard() {
+        int lost = 0;
+        int won = 0;
+
+        for (long seed = 0; seed < 500; seed++) {
+            Board board = new Board(COLS, ROWS, MINES);
+            ConcurrentBoard concurrentBoard = new ConcurrentBoard(COLS, ROWS, MINES);
+            SplittableRandom random = new SplittableRandom(seed);
+
+            // Half of the games only flag mines, so they can be won,
+            // and the others flag random cells, so chords also open mines and dig next to misplaced flags
+            boolean flagMinesOnly = seed % 2 == 0;
+
+            int startX = random.nextInt(COLS);
+            int startY = random.nextInt(ROWS);
+            board.start(startX, startY, seed);
+            concurrentBoard.start(startX, startY, seed);
+
+            board.dig(startX + 1, startY + 1);
+            concurrentBoard.dig(startX + 1, startY + 1);
+            assertSameState(board, concurrentBoard, seed, 0);
+
+            for (int move = 1; move < 5000 && !board.isGameLost() && !board.isGameWon(); move++) {
+                int x = random.nextInt(COLS) + 1;
+                int y = random.nextInt(ROWS) + 1;
+                int op = random.nextInt(100);
+                boolean mine = (board.getCell(x, y) & Cell.MINE) > 0;
+
+                if (op < 40) {
+                    board.chord(x, y);
+                    concurrentBoard.chord(x, y);
+                } else if (op < 65 && (mine || !flagMinesOnly)) {
+                    board.toggleFlag(x, y);
+                    concurrentBoard.toggleFlag(x, y);
+                } else if (op >= 65 && (!mine || (op == 99 && !flagMinesOnly))) {
+                    board.dig(x, y);
+                    concurrentBoard.dig(x, y);
+                }
+
+                assertSameState(board, concurrentBoard, seed, move);
+            }
+
+            if (board.isGameLost()) lost++;
+            if (board.isGameWon()) won++;
+        }
+
+        assertTrue(lost > 0 && won > 0, "Expected games to be both lost and won, got " + lost + " and " + won);
+    }
+
+    private static void assertSameState(Board board, ConcurrentBoard concurrentBoard, long seed, int move) {
+        String message = "Seed " + seed + ", move " + move;
+
+        for (int y = 1; y <= ROWS; y++) {
+            for (int x = 1; x <= COLS; x++) {
+                assertEquals(board.getCell(x, y), concurrentBoard.getCell(x, y), message + ", cell " + x + " " + y);
+            }
+        }
+
+        assertEquals(board.getFlags(), concurrentBoard.getFlags(), message);
+        assertEquals(board.isGameLost(), concurrentBoard.isGameLost(), message);
+        assertEquals(board.isGameWon(), concurrentBoard.isGameWon(), message);
+        assertEquals(board.getClickedMineCell(), concurrentBoard.getClickedMineCell(), message);
+    }
+}
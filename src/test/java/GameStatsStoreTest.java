@@ -0,0 +1,166 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link GameStatsStore}.
+ *
+ * @author Evan Razzaque
+ */
+class GameStatsStoreTest {
+    private static final GameStatsStore.Config BEGINNER = new GameStatsStore.Config(Topology.Kind.SQUARE, 9, 9, 10);
+    private static final GameStatsStore.Config HEX = new GameStatsStore.Config(Topology.Kind.HEX, 16, 16, 40);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void truncatedLastRecordIsDropped() throws IOException {
+        List<GameStatsStore.Result> results = createResults(3, 1);
+        recordAll(results);
+
+        // A record cut short, as if the game crashed while writing it
+        Files.write(directory.resolve(GameStatsStore.LOG_FILE), new byte[GameStatsStore.RECORD_SIZE / 2],
+            StandardOpenOption.APPEND);
+
+        try (GameStatsStore store = new GameStatsStore(directory)) {
+            assertEquals(3, store.getGameCount());
+            assertEquals(3 * GameStatsStore.RECORD_SIZE, Files.size(directory.resolve(GameStatsStore.LOG_FILE)));
+
+            GameStatsStore.Result next = createResults(1, 2).get(0);
+            store.record(next);
+
+            assertEquals(next, store.read(3));
+            assertEquals(results.get(2), store.read(2));
+        }
+    }
+
+    @Test
+    void corruptIndexIsRebuilt() throws IOException {
+        List<GameStatsStore.Result> results = createResults(500, 3);
+        recordAll(results);
+
+        List<String> expected = readStats();
+        Path index = directory.resolve(GameStatsStore.INDEX_FILE);
+        byte[] bytes = Files.readAllBytes(index);
+
+        // A valid header followed by statistics that end too soon
+        Files.write(index, Arrays.copyOf(bytes, bytes.length / 2));
+        assertEquals(expected, readStats());
+
+        // An index that is not an index at all
+        Files.write(index, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertEquals(expected, readStats());
+    }
+
+    @Test
+    void indexAheadOfTheLogIsRebuilt() throws IOException {
+        List<GameStatsStore.Result> results = createResults(300, 4);
+        recordAll(results);
+
+        // The log loses its last games after the index was written
+        try (FileChannel log = FileChannel.open(directory.resolve(GameStatsStore.LOG_FILE), StandardOpenOption.WRITE)) {
+            log.truncate(200L * GameStatsStore.RECORD_SIZE);
+        }
+
+        List<String> indexed = readStats();
+
+        Path expected = directory.resolve("expected");
+        recordAll(expected, results.subList(0, 200));
+
+        assertEquals(readStats(expected), indexed);
+    }
+
+    @Test
+    void rebuiltStatisticsMatchIndexedOnes() throws IOException {
+        List<GameStatsStore.Result> results = createResults(1000, 5);
+        recordAll(results.subList(0, 600));
+
+        // An index that covers only the first games, so the rest of the log is scanned on top of it
+        Path index = directory.resolve(GameStatsStore.INDEX_FILE);
+        Path oldIndex = directory.resolve("old.idx");
+        Files.copy(index, oldIndex);
+
+        recordAll(results.subList(600, results.size()));
+        List<String> indexed = readStats();
+
+        Files.move(oldIndex, index, StandardCopyOption.REPLACE_EXISTING);
+        List<String> partlyIndexed = readStats();
+
+        Files.delete(index);
+        List<String> rebuilt = readStats();
+
+        assertEquals(indexed, rebuilt);
+        assertEquals(indexed, partlyIndexed);
+    }
+
+    /**
+     * A method to create games of two configurations, with about half of them won.
+     *
+     * @param count Number of games
+     * @param seed The seed of the games
+     * @return The games
+     */
+    private static List<GameStatsStore.Result> createResults(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<GameStatsStore.Result> results = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            GameStatsStore.Config config = random.nextBoolean()? BEGINNER : HEX;
+            results.add(new GameStatsStore.Result(1_700_000_000_000L + i, random.nextLong(), config,
+                random.nextBoolean(), random.nextLong(1_000, 10_000_000), random.nextInt(1, 500),
+                random.nextInt(1, 200)));
+        }
+
+        return results;
+    }
+
+    private void recordAll(List<GameStatsStore.Result> results) throws IOException {
+        recordAll(directory, results);
+    }
+
+    private static void recordAll(Path directory, List<GameStatsStore.Result> results) throws IOException {
+        try (GameStatsStore store = new GameStatsStore(directory)) {
+            for (GameStatsStore.Result result : results) store.record(result);
+        }
+    }
+
+    private List<String> readStats() throws IOException {
+        return readStats(directory);
+    }
+
+    /**
+     * A method to open a store and describe the statistics of every configuration, in order.
+     *
+     * @param directory The directory of the store
+     * @return One line per configuration
+     * @throws IOException If the store could not be opened
+     */
+    private static List<String> readStats(Path directory) throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        try (GameStatsStore store = new GameStatsStore(directory)) {
+            for (GameStatsStore.Config config : store.getConfigs()) {
+                GameStatsStore.Stats stats = store.getStats(config);
+
+                lines.add(config + ": " + stats.getGames() + " " + stats.getWins() + " " + stats.getBestTime() + " "
+                    + stats.getRecentWinRate() + " " + stats.getTimePercentile(50) + " "
+                    + stats.getTimePercentile(90) + " " + stats.getTimePercentile(100));
+            }
+        }
+
+        return lines;
+    }
+}
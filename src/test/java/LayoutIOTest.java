@@ -0,0 +1,198 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link LayoutIO}.
+ *
+ * @author Evan Razzaque
+ */
+class LayoutIOTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void layoutsRoundTripInBothFormats() throws IOException {
+        for (Topology.Kind kind : Topology.Kind.values()) {
+            Board board = createBoard(kind, 7, 5, 1);
+
+            for (String name : new String[] {"layout.txt", "layout.rle"}) {
+                Path path = directory.resolve(kind + "-" + name);
+                LayoutIO.write(path, board);
+
+                assertSameLayout(board, LayoutIO.read(path, kind));
+            }
+        }
+    }
+
+    @Test
+    void layeredWidthIncludesEveryLayer() throws IOException {
+        Board board = createBoard(Topology.Kind.LAYERED, 4, 3, 2);
+        StringWriter text = new StringWriter();
+        StringWriter rle = new StringWriter();
+
+        LayoutIO.writeText(text, board);
+        LayoutIO.writeRle(rle, board);
+
+        assertEquals(4 * Topology.LAYERS, text.toString().indexOf('\n'));
+        assertTrue(rle.toString().startsWith("x = " + 4 * Topology.LAYERS + ", y = 3, topology = LAYERED\n"));
+
+        assertSameLayout(board, LayoutIO.readText(new StringReader(text.toString()), Topology.Kind.LAYERED));
+        assertSameLayout(board, LayoutIO.readRle(new StringReader(rle.toString())));
+
+        assertThrows(IOException.class,
+            () -> LayoutIO.readText(new StringReader("*....\n.....\n"), Topology.Kind.LAYERED));
+    }
+
+    @Test
+    void trailingSafeCellsAreLeftOut() throws IOException {
+        Board board = new Board(Topology.of(Topology.Kind.SQUARE, 6, 2));
+        board.placeMine(1);
+        board.placeMine(6);
+
+        StringWriter rle = new StringWriter();
+        LayoutIO.writeRle(rle, board);
+
+        assertEquals("x = 6, y = 2, topology = SQUARE\n.*$*!\n", rle.toString());
+        assertSameLayout(board, LayoutIO.readRle(new StringReader(rle.toString())));
+    }
+
+    @Test
+    void commentsAndAlternativeCharactersAreRead() throws IOException {
+        Board text = LayoutIO.readText(new StringReader("! A comment\n\nx1.\r\n..*\n"), Topology.Kind.SQUARE);
+        Board rle = LayoutIO.readRle(new StringReader("# A comment\nx = 3, y = 2, rule = B3/S23\no$2bo!\n"));
+
+        assertSameLayout(text, rle);
+        assertEquals(2, text.getMines());
+    }
+
+    @Test
+    void malformedLayoutsAreRejected() {
+        assertInvalidText("");
+        assertInvalidText("*..\n..\n");
+        assertInvalidText("*.?\n");
+        assertInvalidText("**\n**\n");
+
+        assertInvalidRle("");
+        assertInvalidRle("x = 3\n*!\n");
+        assertInvalidRle("x = 3, y = two\n*!\n");
+        assertInvalidRle("x = 3, y = 2, topology = CUBE\n*!\n");
+        assertInvalidRle("x = 3, y = 2\n4*!\n");
+        assertInvalidRle("x = 3, y = 2\n4.!\n");
+        assertInvalidRle("x = 3, y = 2\n2$*!\n");
+        assertInvalidRle("x = 3, y = 2\n3$!\n");
+        assertInvalidRle("x = 3, y = 2\n*?!\n");
+        assertInvalidRle("x = 2, y = 1\n2*!\n");
+        assertInvalidRle("x = 3, y = 2\n99999999999*!\n");
+    }
+
+    @Test
+    void layoutsWithTooManyCellsAreRejected() {
+        assertInvalidRle("x = 100000, y = 100000\n*!\n");
+        assertInvalidRle("x = 30000, y = 30000, topology = LAYERED\n*!\n");
+        assertInvalidRle("x = 2147483647, y = 2147483647\n*!\n");
+
+        // A text layout is rejected once its rows pass the limit, before the rest is read
+        int width = 1 << 12;
+        int rows = LayoutIO.MAX_CELLS / width + 1;
+
+        assertThrows(IOException.class, () -> LayoutIO.readText(new RowReader(width, rows), Topology.Kind.SQUARE));
+    }
+
+    @Test
+    void readsTheFormatOfTheExtension() throws IOException {
+        Path text = directory.resolve("layout.rle.txt");
+        Files.writeString(text, "*..\n...\n");
+
+        assertEquals(1, LayoutIO.read(text, Topology.Kind.SQUARE).getMines());
+
+        Path rle = directory.resolve("layout.RLE");
+        Files.writeString(rle, "x = 3, y = 2\n*..$2*!\n");
+
+        assertEquals(3, LayoutIO.read(rle, Topology.Kind.HEX).getMines());
+    }
+
+    /**
+     * A method to create a board with about a fifth of its cells as mines.
+     *
+     * @param kind The kind of topology
+     * @param cols Number of columns (of each layer for {@link Topology.Kind#LAYERED})
+     * @param rows Number of rows
+     * @param seed The seed of the mine placement
+     * @return The board
+     */
+    private static Board createBoard(Topology.Kind kind, int cols, int rows, long seed) {
+        Board board = new Board(Topology.of(kind, cols, rows));
+        Random random = new Random(seed);
+
+        for (int i = 0; i < board.getTopology().getCellCount(); i++) {
+            if (random.nextInt(5) == 0) board.placeMine(i);
+        }
+
+        return board;
+    }
+
+    private static void assertSameLayout(Board expected, Board actual) {
+        Topology topology = expected.getTopology();
+
+        assertEquals(topology.getKind(), actual.getTopology().getKind());
+        assertEquals(topology.getWidth(), actual.getTopology().getWidth());
+        assertEquals(topology.getHeight(), actual.getTopology().getHeight());
+        assertEquals(expected.getMines(), actual.getMines());
+
+        for (int i = 0; i < topology.getCellCount(); i++) {
+            assertEquals(expected.getCellAt(i) & Cell.MINE, actual.getCellAt(i) & Cell.MINE, "Cell " + i);
+        }
+    }
+
+    private static void assertInvalidText(String layout) {
+        assertThrows(IOException.class, () -> LayoutIO.readText(new StringReader(layout), Topology.Kind.SQUARE), layout);
+    }
+
+    private static void assertInvalidRle(String layout) {
+        assertThrows(IOException.class, () -> LayoutIO.readRle(new StringReader(layout)), layout);
+    }
+
+    /**
+     * A reader of a text layout with a mine in its first cell, which makes its rows as they are read
+     * so large layouts are never held in memory.
+     */
+    private static class RowReader extends Reader {
+        private final int width;
+        private final long length;
+        private long position;
+
+        RowReader(int width, int rows) {
+            this.width = width;
+            length = (long) (width + 1) * rows;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            if (position == length) return -1;
+
+            int read = (int) Math.min(count, length - position);
+
+            for (int i = 0; i < read; i++, position++) {
+                int col = (int) (position % (width + 1));
+                buffer[offset + i] = (col == width)? '\n' : (position == 0)? '*' : '.';
+            }
+
+            return read;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link Metrics}. Since {@link Metrics#ENABLED} is read once per JVM,
+ * every test runs the game in a new JVM.
+ *
+ * @author Evan Razzaque
+ */
+class MetricsTest {
+    @Test
+    void metricsOptionEnablesTheTimers() throws IOException, InterruptedException {
+        String output = run(MetricsGame.class, "-metrics");
+
+        assertTrue(output.startsWith("true"), output);
+        assertTrue(output.contains("board.dig"), output);
+    }
+
+    @Test
+    void timersAreDisabledByDefault() throws IOException, InterruptedException {
+        String output = run(MetricsGame.class);
+
+        assertTrue(output.startsWith("false"), output);
+        assertFalse(output.contains("board.dig"), output);
+    }
+
+    private static String run(Class<?> mainClass, String... args) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String[] command = new String[args.length + 4];
+
+        command[0] = java;
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = mainClass.getName();
+        System.arraycopy(args, 0, command, 4, args.length);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertEquals(0, process.waitFor(), output);
+        return output;
+    }
+
+    /**
+     * Starts the game like the JavaFX launcher does, which loads the Game class before calling
+     * {@link Game#main(String[])}, then plays a move and prints whether metrics are enabled along with the report.
+     */
+    static class MetricsGame {
+        public static void main(String[] args) throws ClassNotFoundException {
+            Class.forName("Game");
+            Game.enableMetrics(args);
+
+            Board board = new Board(8, 8, 10);
+            board.start(0, 0, 1);
+            board.dig(1, 1);
+
+            System.out.println(Metrics.ENABLED);
+            System.out.print(Metrics.getReport());
+        }
+    }
+}